@@ -0,0 +1,69 @@
+package com.serpentia.benchmark;
+
+import com.serpentia.dto.GameStateDTO;
+import com.serpentia.dto.PlayerDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones de BoardState que corren en cada tick o en cada consulta del estado:
+ * generar una fruta, comprobar el fin de partida, contar equipos vivos y convertir
+ * jugadores y tablero a DTOs para el frontend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardStateBenchmark {
+
+    @Param({"40", "200"})
+    private int boardSize;
+
+    @Param({"2", "8"})
+    private int players;
+
+    @Param({"10", "60"})
+    private int snakeLength;
+
+    private BoardState board;
+
+    @Setup
+    public void setUp() {
+        board = RingBoards.create(boardSize, players, snakeLength, GameMode.TEAM);
+    }
+
+    /**
+     * Genera una fruta y la retira para que el tablero no se llene entre invocaciones.
+     */
+    @Benchmark
+    public boolean spawnFruit() {
+        board.spawnFruit();
+        return board.removeFruit(board.getFruits().get(board.getFruits().size() - 1));
+    }
+
+    @Benchmark
+    public boolean isGameFinished() {
+        return board.isGameFinished();
+    }
+
+    @Benchmark
+    public int getAliveTeamCount() {
+        return board.getAliveTeamCount();
+    }
+
+    @Benchmark
+    public List<PlayerDTO> playerDtos() {
+        return board.getPlayers().values().stream().map(PlayerDTO::new).toList();
+    }
+
+    @Benchmark
+    public GameStateDTO gameStateDto() {
+        return new GameStateDTO(board, board.getPlayers());
+    }
+}
@@ -0,0 +1,85 @@
+package com.serpentia.benchmark;
+
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import com.serpentia.model.SnakeBody;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la detección de colisiones de un tick: el recorrido de todos los cuerpos
+ * buscando la celda (implementación anterior) frente a la rejilla de ocupación de BoardState.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"40", "200", "1000"})
+    private int boardSize;
+
+    @Param({"4"})
+    private int players;
+
+    @Param({"10", "500", "5000"})
+    private int snakeLength;
+
+    private BoardState board;
+    private int[] heads;
+
+    @Setup
+    public void setUp() {
+        board = new BoardState();
+        board.setWidth(boardSize);
+        board.setHeight(boardSize);
+        int length = Math.min(snakeLength, boardSize * boardSize / players);
+        int cell = 0;
+        for (int i = 0; i < players; i++) {
+            String id = "p" + i;
+            board.addPlayer(id, "#FF0000", toPoint(cell++));
+            for (int s = 1; s < length; s++) {
+                board.pushHead(id, toPoint(cell++));
+            }
+        }
+
+        Random random = new Random(7);
+        heads = new int[players];
+        for (int i = 0; i < players; i++) {
+            heads[i] = random.nextInt(boardSize * boardSize);
+        }
+    }
+
+    @Benchmark
+    public void scan(Blackhole bh) {
+        for (int nh : heads) {
+            boolean hit = false;
+            for (SnakeBody other : board.getSnakePositions().values()) {
+                if (other.contains(nh)) {
+                    hit = true;
+                    break;
+                }
+            }
+            bh.consume(hit);
+        }
+    }
+
+    @Benchmark
+    public void grid(Blackhole bh) {
+        for (int nh : heads) {
+            bh.consume(board.isOccupied(nh));
+        }
+    }
+
+    private Point toPoint(int cell) {
+        // Recorrido en zigzag para que cada cuerpo sea contiguo
+        int y = cell / boardSize;
+        int x = cell % boardSize;
+        return new Point(y % 2 == 0 ? x : boardSize - 1 - x, y);
+    }
+}
@@ -0,0 +1,73 @@
+package com.serpentia.benchmark;
+
+import com.serpentia.model.BoardState;
+import com.serpentia.repository.GameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GameRepository en memoria para que los benchmarks corran sin Redis. Guarda las
+ * referencias de los tableros tal cual, así que mide la simulación y no la red ni
+ * la serialización.
+ */
+public class InMemoryGameRepository extends GameRepository {
+
+    private final Map<String, BoardState> boards = new ConcurrentHashMap<>();
+
+    public InMemoryGameRepository() {
+        super(null, new SimpleMeterRegistry());
+    }
+
+    @Override
+    public void saveBoard(BoardState board) {
+        saveBoards(List.of(board));
+    }
+
+    @Override
+    public BoardState getBoard(String roomId) {
+        return boards.get(roomId);
+    }
+
+    @Override
+    public Map<String, BoardState> getBoards(List<String> roomIds) {
+        Map<String, BoardState> found = new HashMap<>();
+        for (String id : roomIds) {
+            found.put(id, boards.get(id));
+        }
+        return found;
+    }
+
+    @Override
+    public void saveBoards(Collection<BoardState> toSave) {
+        for (BoardState board : toSave) {
+            boards.put(board.getRoomId(), board);
+            board.changes().clear();
+        }
+    }
+
+    @Override
+    public Set<String> getActiveRoomIds() {
+        return Set.copyOf(boards.keySet());
+    }
+
+    @Override
+    public void deleteBoard(String roomId) {
+        boards.remove(roomId);
+    }
+
+    @Override
+    public void deleteAllGames() {
+        boards.clear();
+    }
+
+    @Override
+    public int repairActiveGames() {
+        return 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.serpentia.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.dto.PlayerDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.repository.CompactRedisSerializer;
+import com.serpentia.websocket.BroadcastEnvelope;
+import com.serpentia.websocket.GameBroadcaster;
+import com.serpentia.websocket.GameEvent;
+import com.serpentia.websocket.GameFinishedEvent;
+import com.serpentia.websocket.ScoreEvent;
+import com.serpentia.websocket.TickFrame;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de codificar y decodificar cada carga que sale del nodo por tick o por
+ * partida, con un tablero realista (modo equipos, 4 jugadores, serpientes largas):
+ * <ul>
+ *   <li>tick / keyframe: TickFrame sin y con tablero, lo que se envía por STOMP</li>
+ *   <li>start, score, finished: GameEvent START, ScoreEvent y GameFinishedEvent</li>
+ *   <li>envelope: sobre binario con el que un TickFrame viaja por Pub/Sub a otros nodos</li>
+ *   <li>board-json / board-compact: BoardState en Redis con el serializador anterior y con el de RedisConfig</li>
+ * </ul>
+ * Los eventos JSON se decodifican como árbol, igual que cualquier consumidor que no
+ * conoce el tipo de antemano. El tamaño de cada carga sale como métrica secundaria
+ * "bytes" ({@link Size}) y la asignación por operación como gc.alloc.rate.norm, del
+ * profiler de GC que activa el perfil benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadSerializationBenchmark {
+
+    @Param({"tick", "keyframe", "start", "score", "finished", "envelope", "board-json", "board-compact"})
+    private String payload;
+
+    @Param({"120"})
+    private int snakeLength;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer();
+
+    private Object message;
+    private byte[] tickBytes;
+    private byte[] encoded;
+
+    /**
+     * Tamaño de la carga de cada operación; JMH lo reporta junto al tiempo como "bytes".
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        BoardState board = RingBoards.create(64, 4, snakeLength, GameMode.TEAM);
+        for (int i = 0; i < 5; i++) {
+            board.spawnFruit();
+        }
+        board.setTick(400);
+        board.addScoreToPlayer(RingBoards.player(0), 30);
+        board.addScoreToTeam("team1", 30);
+
+        TickFrame frame = new TickFrame(board.getRoomId(), board.getTick());
+        frame.setStatus(board.getStatus());
+        for (int i = 0; i < 4; i++) {
+            String id = RingBoards.player(i);
+            frame.getHeads().put(id, board.getSnakePositions().get(id).headPoint());
+            if (i > 0) {
+                frame.getTails().add(id);
+            }
+        }
+        frame.getFruitsRemoved().add(board.getSnakePositions().get(RingBoards.player(0)).headPoint());
+        frame.getFruitsAdded().add(board.getFruits().get(0));
+        frame.getScores().put(RingBoards.player(0), 40);
+        frame.getTeamScores().put("team1", 40);
+        frame.addEvent("FRUIT", RingBoards.player(0));
+        tickBytes = mapper.writeValueAsBytes(frame);
+
+        message = switch (payload) {
+            case "tick", "envelope" -> frame;
+            case "keyframe" -> {
+                TickFrame keyframe = new TickFrame(board.getRoomId(), board.getTick());
+                keyframe.setStatus(board.getStatus());
+                keyframe.setBoard(board);
+                yield keyframe;
+            }
+            case "start" -> new GameEvent("START", null, board);
+            case "score" -> new ScoreEvent("SCORE_UPDATE",
+                    board.getPlayers().values().stream().map(PlayerDTO::new).toList(), board.getRoomId());
+            case "finished" -> {
+                List<GameFinishedEvent.PlayerResult> results = board.getPlayers().values().stream()
+                        .map(p -> new GameFinishedEvent.PlayerResult(p.getName(), p.getScore(), 1, p.isAlive()))
+                        .toList();
+                yield new GameFinishedEvent(board.getRoomId(), results);
+            }
+            case "board-json", "board-compact" -> board;
+            default -> throw new IllegalArgumentException(payload);
+        };
+        encoded = serialize();
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) {
+        byte[] bytes = serialize();
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode(Size size) {
+        size.bytes = encoded.length;
+        try {
+            return switch (payload) {
+                case "envelope" -> BroadcastEnvelope.decode(encoded);
+                case "board-json" -> json.deserialize(encoded);
+                case "board-compact" -> compact.deserialize(encoded);
+                default -> mapper.readTree(encoded);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serialize() {
+        try {
+            return switch (payload) {
+                case "envelope" -> new BroadcastEnvelope("node-1", GameBroadcaster.TOPIC + "bench-room", tickBytes).encode();
+                case "board-json" -> json.serialize(message);
+                case "board-compact" -> compact.serialize(message);
+                default -> mapper.writeValueAsBytes(message);
+            };
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
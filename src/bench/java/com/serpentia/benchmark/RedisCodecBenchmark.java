@@ -0,0 +1,84 @@
+package com.serpentia.benchmark;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import com.serpentia.repository.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el guardado y la lectura de un tablero en Redis: JSON con tipos de
+ * GenericJackson2JsonRedisSerializer (formato anterior) frente al formato binario de
+ * CompactRedisSerializer. El tamaño de cada formato se imprime al preparar el estado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    @Param({"2", "4"})
+    private int players;
+
+    @Param({"10", "40"})
+    private int snakeLength;
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer();
+
+    private BoardState board;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        board = new BoardState();
+        board.setRoomId("bench-room");
+        board.setStatus("IN_GAME");
+        board.setGameMode(players == 4 ? GameMode.TEAM : GameMode.COMPETITIVE);
+        board.setTargetScore(1000);
+        board.setTick(5000);
+        for (int i = 0; i < players; i++) {
+            String id = "player" + i;
+            board.addPlayer(id, "#FF0000", new Point(0, i * 2));
+            for (int x = 1; x < snakeLength; x++) {
+                board.pushHead(id, new Point(x, i * 2));
+            }
+            board.addScoreToPlayer(id, 10 * i);
+        }
+        board.assignTeamsAutomatically();
+        for (int i = 0; i < 5; i++) {
+            board.spawnFruit();
+        }
+
+        jsonBytes = json.serialize(board);
+        compactBytes = compact.serialize(board);
+        System.out.printf("%n[players=%d, snakeLength=%d] json=%d bytes, compact=%d bytes%n",
+                players, snakeLength, jsonBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() {
+        return json.serialize(board);
+    }
+
+    @Benchmark
+    public Object jsonRead() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] compactWrite() {
+        return compact.serialize(board);
+    }
+
+    @Benchmark
+    public Object compactRead() {
+        return compact.deserialize(compactBytes);
+    }
+}
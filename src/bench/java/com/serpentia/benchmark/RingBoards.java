@@ -0,0 +1,89 @@
+package com.serpentia.benchmark;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import com.serpentia.model.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tableros estables para benchmarks: cada serpiente recorre un anillo de dos filas
+ * (ida por la fila 2i, vuelta por la 2i + 1), así que sin frutas nunca choca y la
+ * partida no termina por muchos ticks que se simulen. La semilla es fija para que
+ * las frutas caigan igual en cada corrida.
+ */
+public final class RingBoards {
+
+    private static final long SEED = 42;
+
+    private RingBoards() {
+    }
+
+    /**
+     * @param size Ancho y alto del tablero; debe ser al menos 2 * players
+     * @param players Número de jugadores
+     * @param length Largo de cada serpiente; se limita al anillo menos una celda
+     */
+    public static BoardState create(int size, int players, int length, GameMode mode) {
+        if (2 * players > size) {
+            throw new IllegalArgumentException("El tablero de " + size + " no tiene filas para " + players + " anillos");
+        }
+        BoardState board = new BoardState();
+        board.reseed(SEED);
+        board.setRoomId("bench-room");
+        board.setStatus("IN_GAME");
+        board.setGameMode(mode);
+        board.setTargetScore(Integer.MAX_VALUE);
+        board.setWidth(size);
+        board.setHeight(size);
+        int ring = 2 * size;
+        int body = Math.max(1, Math.min(length, ring - 1));
+        for (int i = 0; i < players; i++) {
+            String id = player(i);
+            board.addPlayer(id, "#FF0000", ringCell(size, i, 0));
+            for (int k = 1; k < body; k++) {
+                board.pushHead(id, ringCell(size, i, k));
+            }
+            board.setPlayerDirection(id, direction(board, i));
+        }
+        assignTeams(board);
+        return board;
+    }
+
+    public static String player(int index) {
+        return "player" + index;
+    }
+
+    /**
+     * @return Dirección que mantiene a la serpiente del jugador index sobre su anillo
+     */
+    public static String direction(BoardState board, int index) {
+        int size = board.getWidth();
+        Point head = board.getSnakePositions().get(player(index)).headPoint();
+        boolean outbound = head.getY() == 2 * index;
+        if (outbound) {
+            return head.getX() == size - 1 ? "DOWN" : "RIGHT";
+        }
+        return head.getX() == 0 ? "UP" : "LEFT";
+    }
+
+    /**
+     * Reparte los jugadores en dos equipos alternados, para cualquier número de jugadores.
+     */
+    public static void assignTeams(BoardState board) {
+        List<String> team1 = new ArrayList<>();
+        List<String> team2 = new ArrayList<>();
+        for (int i = 0; i < board.getPlayers().size(); i++) {
+            (i % 2 == 0 ? team1 : team2).add(player(i));
+            board.getPlayerToTeam().put(player(i), i % 2 == 0 ? "team1" : "team2");
+        }
+        board.getTeams().put("team1", new Team("team1", team1));
+        board.getTeams().put("team2", new Team("team2", team2));
+    }
+
+    private static Point ringCell(int size, int lane, int k) {
+        return k < size ? new Point(k, 2 * lane) : new Point(2 * size - 1 - k, 2 * lane + 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.serpentia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.benchmark.InMemoryGameRepository;
+import com.serpentia.benchmark.RingBoards;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.websocket.BroadcastMetrics;
+import com.serpentia.websocket.GameBroadcaster;
+import com.serpentia.websocket.GameEventPublisher;
+import com.serpentia.websocket.SpectatorFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide un tick completo de una sala (updateBoard más el bucle que lo rodea: reloj,
+ * lease, lectura y guardado por lotes y difusión del TickFrame serializado) contra
+ * un repositorio en memoria y un broker STOMP que descarta los mensajes, así que
+ * no necesita Redis. Las serpientes giran en anillos y la partida no termina.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLoopBenchmark {
+
+    @Param({"40", "200"})
+    private int boardSize;
+
+    @Param({"2", "8"})
+    private int players;
+
+    @Param({"10", "60"})
+    private int snakeLength;
+
+    @Param({"redis", "memory"})
+    private String stateMode;
+
+    private static final long PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private GameService gameService;
+    private BoardState board;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        InMemoryGameRepository repository = new InMemoryGameRepository();
+        RoomLeaseService leases = new RoomLeaseService(null, "bench", 2000) {
+            @Override
+            public boolean acquire(String roomId) {
+                return true;
+            }
+
+            @Override
+            public boolean renew(String roomId) {
+                return true;
+            }
+
+            @Override
+            public Set<String> renewAll(Collection<String> roomIds) {
+                return Set.copyOf(roomIds);
+            }
+
+            @Override
+            public Set<String> claim(Collection<String> roomIds, long now) {
+                return Set.of();
+            }
+
+            @Override
+            public boolean owns(String roomId) {
+                return true;
+            }
+
+            @Override
+            public Set<String> ownedRooms() {
+                return Set.of("bench-room");
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RoomMetrics roomMetrics = new RoomMetrics(registry, true, 60000);
+        BroadcastMetrics broadcastMetrics = new BroadcastMetrics(registry, roomMetrics);
+        GameEventPublisher publisher = new GameEventPublisher(null, broadcastMetrics) {
+            @Override
+            public void publish(String roomId, byte[] envelope) {
+            }
+        };
+        ObjectMapper mapper = new ObjectMapper();
+        GameBroadcaster broadcaster = new GameBroadcaster(
+                new SimpMessagingTemplate((message, timeout) -> true), publisher, mapper, leases, broadcastMetrics);
+        GameStateStore store = new GameStateStore(repository, stateMode, 25);
+        LoadShedder shedder = new LoadShedder(registry, false, 0.6, 0.8, 1.0, 3000);
+        gameService = new GameService(store, leases, broadcaster, event -> { }, Runnable::run,
+                new GameLoopMetrics(registry, roomMetrics), new TickRatePolicy(5, 0, 0, 0, 30, 3),
+                new RoomInputBuffer(leases, null, mapper),
+                shedder, new SpectatorFeed(broadcaster, shedder, registry, false, 1000, 0, 10000), 20, 16);
+
+        board = RingBoards.create(boardSize, players, snakeLength, GameMode.COMPETITIVE);
+        store.start(board);
+        now = 0;
+    }
+
+    @Benchmark
+    public long tick() {
+        for (int i = 0; i < players; i++) {
+            gameService.setDirection("bench-room", RingBoards.player(i), RingBoards.direction(board, i));
+        }
+        gameService.gameLoop(now);
+        now += PERIOD_NANOS;
+        return board.getTick();
+    }
+
+    @TearDown
+    public void checkStillPlaying() {
+        if (!"IN_GAME".equals(board.getStatus()) || board.getAlivePlayerCount() != players) {
+            throw new IllegalStateException("La partida del benchmark terminó en el tick " + board.getTick());
+        }
+    }
+}
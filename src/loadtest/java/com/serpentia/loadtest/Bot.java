@@ -0,0 +1,318 @@
+package com.serpentia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.dto.AuthRequest;
+import com.serpentia.dto.RegisterRequest;
+import com.serpentia.dto.RoomDTO;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Jugador simulado: se registra e inicia sesión por /api/auth, entra a su sala por
+ * /api/lobby, se conecta a /ws con su token y se suscribe a /topic/game/{roomId}.
+ * Cambia de dirección a ritmo humano (con variación aleatoria), evitando las
+ * paredes según la cabeza que le llega en cada TickFrame. El host de la sala además
+ * la crea, inicia la partida y la reinicia cuando termina mientras dure la corrida.
+ */
+class Bot extends StompSessionHandlerAdapter {
+
+    private static final String TOPIC = "/topic/game/";
+
+    private final LoadOptions options;
+    private final HttpClient http;
+    private final ObjectMapper mapper;
+    private final LoadStats stats;
+    private final ScheduledExecutorService scheduler;
+    private final BooleanSupplier running;
+    private final String username;
+    private final String roomId;
+    private final boolean host;
+
+    private String token;
+    private volatile StompSession session;
+
+    // Vista local del juego, actualizada con los mensajes de la sala
+    private volatile String direction = "RIGHT";
+    private volatile int headX = -1;
+    private volatile int headY = -1;
+    private volatile int width = 40;
+    private volatile int height = 30;
+    private volatile boolean alive;
+    private long lastTick = -1;
+
+    Bot(LoadOptions options, HttpClient http, ObjectMapper mapper, LoadStats stats,
+        ScheduledExecutorService scheduler, BooleanSupplier running, int room, int seat) {
+        this.options = options;
+        this.http = http;
+        this.mapper = mapper;
+        this.stats = stats;
+        this.scheduler = scheduler;
+        this.running = running;
+        this.username = options.username(room, seat);
+        this.roomId = options.roomId(room);
+        this.host = seat == 0;
+    }
+
+    String username() {
+        return username;
+    }
+
+    boolean isHost() {
+        return host;
+    }
+
+    boolean isConnected() {
+        return session != null && session.isConnected();
+    }
+
+    /**
+     * Registra al bot (si ya existe de una corrida anterior se ignora el error) e inicia sesión.
+     */
+    void authenticate() throws IOException, InterruptedException {
+        send("POST", "/api/auth/register", new RegisterRequest(username, options.password()), false);
+        String body = send("POST", "/api/auth/login", new AuthRequest(username, options.password()), true);
+        token = mapper.readTree(body).path("token").asText();
+    }
+
+    void createRoom() throws IOException, InterruptedException {
+        RoomDTO room = new RoomDTO(roomId, username, options.gameMode(), options.players(),
+                null, false, options.targetScore(), options.tickRate());
+        send("POST", "/api/lobby/rooms", room, true);
+    }
+
+    void joinRoom() throws IOException, InterruptedException {
+        send("POST", "/api/lobby/rooms/" + roomId + "/join", null, true);
+    }
+
+    void startGame() throws IOException, InterruptedException {
+        send("POST", "/api/game/start/" + roomId, null, true);
+    }
+
+    void deleteRoom() throws IOException, InterruptedException {
+        send("DELETE", "/api/lobby/rooms/" + roomId, null, true);
+    }
+
+    CompletableFuture<StompSession> connect(WebSocketStompClient client) {
+        String url = options.url() + "/ws?token={token}&roomId={roomId}";
+        return client.connectAsync(url, this, token, roomId);
+    }
+
+    void disconnect() {
+        StompSession s = session;
+        if (s != null && s.isConnected()) {
+            s.disconnect();
+        }
+    }
+
+    /**
+     * Programa la siguiente pulsación: en promedio movesPerSecond por segundo, con ±50% de variación.
+     */
+    void scheduleMove() {
+        if (!running.getAsBoolean()) {
+            return;
+        }
+        double mean = 1000.0 / options.movesPerSecond();
+        long delay = (long) (mean * (0.5 + ThreadLocalRandom.current().nextDouble()));
+        scheduler.schedule(this::move, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void move() {
+        try {
+            StompSession s = session;
+            if (alive && s != null && s.isConnected()) {
+                String next = chooseDirection();
+                StompHeaders headers = new StompHeaders();
+                headers.setDestination("/app/room/" + roomId + "/move");
+                s.send(headers, mapper.writeValueAsBytes(Map.of("player", username, "direction", next)));
+                direction = next;
+                stats.moves.increment();
+            }
+        } catch (Exception e) {
+            stats.errors.increment();
+        } finally {
+            scheduleMove();
+        }
+    }
+
+    /**
+     * Sigue derecho la mayoría de las veces; gira a un lado libre si la pared está cerca
+     * o, de vez en cuando, al azar.
+     */
+    private String chooseDirection() {
+        String current = direction;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (headX < 0 || (clear(current) && random.nextDouble() < 0.7)) {
+            return current;
+        }
+        List<String> turns = new ArrayList<>(2);
+        for (String dir : current.equals("UP") || current.equals("DOWN")
+                ? new String[]{"LEFT", "RIGHT"} : new String[]{"UP", "DOWN"}) {
+            if (clear(dir)) {
+                turns.add(dir);
+            }
+        }
+        return turns.isEmpty() ? current : turns.get(random.nextInt(turns.size()));
+    }
+
+    /**
+     * @return true si las próximas 3 celdas en esa dirección están dentro del tablero
+     */
+    private boolean clear(String dir) {
+        int x = headX + switch (dir) {
+            case "LEFT" -> -3;
+            case "RIGHT" -> 3;
+            default -> 0;
+        };
+        int y = headY + switch (dir) {
+            case "UP" -> -3;
+            case "DOWN" -> 3;
+            default -> 0;
+        };
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        this.session = session;
+        session.subscribe(TOPIC + roomId, this);
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        long now = System.currentTimeMillis();
+        byte[] bytes = (byte[]) payload;
+        try {
+            JsonNode node = mapper.readTree(bytes);
+            String type = node.path("type").asText("");
+            if (type.equals("TICK")) {
+                onTick(node, now, bytes.length);
+            } else if (type.equals("START")) {
+                onStart(node.path("board"));
+            } else if (node.has("results")) {
+                onFinished();
+            }
+        } catch (IOException e) {
+            stats.errors.increment();
+        }
+    }
+
+    private synchronized void onStart(JsonNode board) {
+        width = board.path("width").asInt(width);
+        height = board.path("height").asInt(height);
+        lastTick = board.path("tick").asLong(0);
+        direction = "RIGHT";
+        headX = -1;
+        alive = true;
+        if (host) {
+            stats.gamesStarted.increment();
+        }
+    }
+
+    private synchronized void onTick(JsonNode frame, long now, int size) {
+        stats.frames.increment();
+        stats.bytes.add(size);
+        long sentAt = frame.path("sentAt").asLong(0);
+        if (sentAt > 0) {
+            stats.latency(now - sentAt);
+        }
+        if (frame.has("board")) {
+            stats.keyframes.increment();
+        }
+
+        long tick = frame.path("tick").asLong();
+        if (lastTick >= 0 && tick > lastTick + 1) {
+            stats.dropped.add(tick - lastTick - 1);
+        } else if (lastTick >= 0 && tick <= lastTick) {
+            stats.outOfOrder.increment();
+        }
+        lastTick = Math.max(lastTick, tick);
+
+        JsonNode head = frame.path("heads").path(username);
+        if (!head.isMissingNode()) {
+            headX = head.path("x").asInt();
+            headY = head.path("y").asInt();
+        }
+        for (JsonNode eliminated : frame.path("eliminated")) {
+            if (eliminated.asText().equals(username)) {
+                alive = false;
+            }
+        }
+    }
+
+    private void onFinished() {
+        alive = false;
+        if (!host) {
+            return;
+        }
+        stats.gamesFinished.increment();
+        if (running.getAsBoolean()) {
+            scheduler.schedule(() -> {
+                try {
+                    startGame();
+                } catch (IOException | RuntimeException e) {
+                    stats.errors.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command,
+                                StompHeaders headers, byte[] payload, Throwable exception) {
+        stats.errors.increment();
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        stats.errors.increment();
+    }
+
+    /**
+     * @param required Si es true, una respuesta que no sea 2xx lanza IllegalStateException
+     * @return Cuerpo de la respuesta
+     */
+    private String send(String method, String path, Object body, boolean required)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.url() + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (required && response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " -> " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+}
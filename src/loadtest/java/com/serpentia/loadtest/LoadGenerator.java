@@ -0,0 +1,177 @@
+package com.serpentia.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generador de carga sin interfaz contra una instancia de Serpentia ya levantada.
+ * Abre {@code rooms} salas con {@code players} bots cada una, las juega durante
+ * {@code duration} segundos y reporta latencia tick a cliente (percentiles),
+ * frames y movimientos por segundo, y frames perdidos.
+ *
+ * <p>Se corre con el perfil loadtest:
+ * {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rooms 50 --players 4 --duration 120"}.
+ * La latencia se calcula con el reloj del servidor (sentAt del TickFrame), así que
+ * solo es exacta si el generador corre en la misma máquina o con relojes sincronizados.</p>
+ */
+public class LoadGenerator {
+
+    private final LoadOptions options;
+    private final LoadStats stats = new LoadStats();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final ExecutorService setup = Executors.newFixedThreadPool(16);
+    private final List<List<Bot>> rooms = new ArrayList<>();
+    private volatile boolean running = true;
+
+    LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    void run() throws InterruptedException {
+        WebSocketStompClient stomp = stompClient();
+        for (int r = 0; r < options.rooms(); r++) {
+            List<Bot> bots = new ArrayList<>();
+            for (int seat = 0; seat < options.players(); seat++) {
+                bots.add(new Bot(options, http, mapper, stats, scheduler, () -> running, r, seat));
+            }
+            rooms.add(bots);
+        }
+
+        System.out.printf("Preparando %d salas x %d bots contra %s (prefijo %s)%n",
+                options.rooms(), options.players(), options.url(), options.prefix());
+        List<CompletableFuture<List<Bot>>> ready = rooms.stream()
+                .map(bots -> CompletableFuture.supplyAsync(() -> prepare(bots, stomp), setup))
+                .toList();
+        List<List<Bot>> playing = new ArrayList<>();
+        for (CompletableFuture<List<Bot>> room : ready) {
+            List<Bot> bots = room.join();
+            if (bots != null) {
+                playing.add(bots);
+            }
+        }
+        if (playing.isEmpty()) {
+            System.err.println("Ninguna sala pudo prepararse; ¿está la instancia levantada en " + options.url() + "?");
+            shutdown(stomp);
+            return;
+        }
+
+        // Deja que las suscripciones lleguen al broker antes del START
+        Thread.sleep(500);
+        stats.markStart();
+        for (List<Bot> bots : playing) {
+            setup.execute(() -> start(bots));
+        }
+        int clients = (int) playing.stream().flatMap(List::stream).filter(Bot::isConnected).count();
+
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        while (System.nanoTime() < end) {
+            Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(options.reportSeconds()),
+                    Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+            System.out.println(stats.progress());
+        }
+        running = false;
+        System.out.println(stats.summary(options, clients));
+
+        for (List<Bot> bots : playing) {
+            try {
+                bots.get(0).deleteRoom();
+            } catch (Exception e) {
+                // La sala queda en el lobby; no afecta al resultado
+            }
+        }
+        shutdown(stomp);
+    }
+
+    /**
+     * Autentica a los bots de la sala, la crea, los une y los conecta por STOMP.
+     * @return Bots de la sala, o null si algún paso falló
+     */
+    private List<Bot> prepare(List<Bot> bots, WebSocketStompClient stomp) {
+        try {
+            for (Bot bot : bots) {
+                bot.authenticate();
+            }
+            bots.get(0).createRoom();
+            for (Bot bot : bots.subList(1, bots.size())) {
+                bot.joinRoom();
+            }
+            for (Bot bot : bots) {
+                bot.connect(stomp).get(10, TimeUnit.SECONDS);
+            }
+            return bots;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            stats.errors.increment();
+            System.err.printf("Sala de %s descartada: %s%n", bots.get(0).username(), e);
+            bots.forEach(Bot::disconnect);
+            return null;
+        }
+    }
+
+    private void start(List<Bot> bots) {
+        try {
+            bots.get(0).startGame();
+            bots.forEach(Bot::scheduleMove);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            stats.errors.increment();
+            System.err.printf("No se pudo iniciar la sala de %s: %s%n", bots.get(0).username(), e);
+        }
+    }
+
+    /**
+     * Cliente STOMP sobre SockJS, como el del navegador. Los keyframes superan el
+     * buffer por defecto del contenedor, así que se amplían los límites de mensaje.
+     */
+    private static WebSocketStompClient stompClient() {
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(1 << 20);
+        container.setDefaultMaxBinaryMessageBufferSize(1 << 20);
+        SockJsClient sockJs = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(container))));
+        WebSocketStompClient stomp = new WebSocketStompClient(sockJs);
+        stomp.setInboundMessageSizeLimit(1 << 20);
+        return stomp;
+    }
+
+    private void shutdown(WebSocketStompClient stomp) {
+        running = false;
+        rooms.forEach(bots -> bots.forEach(Bot::disconnect));
+        stomp.stop();
+        scheduler.shutdownNow();
+        setup.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.serpentia.loadtest;
+
+import com.serpentia.enums.GameMode;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Parámetros de una corrida de carga, leídos de argumentos {@code --nombre valor}.
+ *
+ * @param url URL base de la instancia (REST y /ws)
+ * @param rooms Salas simultáneas
+ * @param players Bots por sala
+ * @param durationSeconds Duración de la medición
+ * @param movesPerSecond Pulsaciones de tecla por segundo de cada bot
+ * @param gameMode Modo de juego de las salas
+ * @param tickRate Ticks por segundo pedidos (0 = el del modo)
+ * @param targetScore Puntaje objetivo de las salas
+ * @param prefix Prefijo de usuarios y salas, para no chocar con corridas anteriores
+ * @param password Contraseña de los bots
+ * @param reportSeconds Cada cuántos segundos se imprime el progreso
+ */
+record LoadOptions(String url, int rooms, int players, int durationSeconds, double movesPerSecond,
+                   GameMode gameMode, int tickRate, int targetScore, String prefix, String password,
+                   int reportSeconds) {
+
+    static final String USAGE = """
+            Uso: LoadGenerator [--url http://localhost:8080] [--rooms 10] [--players 4]
+                               [--duration 60] [--moves-per-second 3] [--mode COMPETITIVE]
+                               [--tick-rate 0] [--target-score 100000] [--prefix bot-xxxx]
+                               [--password loadtest] [--report 5]""";
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Argumento inválido: " + args[i] + "\n" + USAGE);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+        String url = values.getOrDefault("url", "http://localhost:8080");
+        return new LoadOptions(
+                url.endsWith("/") ? url.substring(0, url.length() - 1) : url,
+                Integer.parseInt(values.getOrDefault("rooms", "10")),
+                Integer.parseInt(values.getOrDefault("players", "4")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Double.parseDouble(values.getOrDefault("moves-per-second", "3")),
+                GameMode.valueOf(values.getOrDefault("mode", "COMPETITIVE")),
+                Integer.parseInt(values.getOrDefault("tick-rate", "0")),
+                Integer.parseInt(values.getOrDefault("target-score", "100000")),
+                values.getOrDefault("prefix", "bot-" + UUID.randomUUID().toString().substring(0, 4)),
+                values.getOrDefault("password", "loadtest"),
+                Integer.parseInt(values.getOrDefault("report", "5")));
+    }
+
+    String roomId(int room) {
+        return prefix + "-room" + room;
+    }
+
+    String username(int room, int seat) {
+        return prefix + "-" + room + "-" + seat;
+    }
+}
@@ -0,0 +1,94 @@
+package com.serpentia.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de una corrida, compartidos por todos los bots. La latencia tick a
+ * cliente (llegada menos sentAt del TickFrame) se guarda en un histograma de
+ * 1 ms por casilla; lo que supera el último se cuenta en la casilla final.
+ */
+class LoadStats {
+
+    private static final int MAX_MILLIS = 10_000;
+
+    private final AtomicLongArray latency = new AtomicLongArray(MAX_MILLIS + 1);
+    private volatile long startedAt = System.nanoTime();
+
+    final LongAdder frames = new LongAdder();
+    final LongAdder keyframes = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder outOfOrder = new LongAdder();
+    final LongAdder moves = new LongAdder();
+    final LongAdder gamesStarted = new LongAdder();
+    final LongAdder gamesFinished = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    /**
+     * Empieza a contar el tiempo de la corrida (tras preparar salas y conexiones).
+     */
+    void markStart() {
+        startedAt = System.nanoTime();
+    }
+
+    void latency(long millis) {
+        latency.incrementAndGet((int) Math.max(0, Math.min(millis, MAX_MILLIS)));
+    }
+
+    /**
+     * @param p Percentil entre 0 y 100
+     * @return Latencia en ms del percentil, o -1 sin muestras
+     */
+    long percentile(double p) {
+        long total = 0;
+        for (int i = 0; i <= MAX_MILLIS; i++) {
+            total += latency.get(i);
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * p / 100));
+        long seen = 0;
+        for (int i = 0; i <= MAX_MILLIS; i++) {
+            seen += latency.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return MAX_MILLIS;
+    }
+
+    double elapsedSeconds() {
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    /**
+     * @return Línea de progreso con tasas acumuladas desde el inicio
+     */
+    String progress() {
+        double s = elapsedSeconds();
+        return String.format("[%5.0fs] frames/s=%.0f moves/s=%.0f KB/s=%.0f p50=%dms p99=%dms dropped=%d errors=%d",
+                s, frames.sum() / s, moves.sum() / s, bytes.sum() / 1024.0 / s,
+                percentile(50), percentile(99), dropped.sum(), errors.sum());
+    }
+
+    String summary(LoadOptions options, int clients) {
+        double s = elapsedSeconds();
+        long received = frames.sum();
+        long lost = dropped.sum();
+        return String.join("\n",
+                "=== Resultado ===",
+                String.format("Salas: %d x %d jugadores (%s), clientes conectados: %d, duración: %.0fs",
+                        options.rooms(), options.players(), options.gameMode(), clients, s),
+                String.format("Frames recibidos: %d (%.0f/s), keyframes: %d, %.1f KB/s",
+                        received, received / s, keyframes.sum(), bytes.sum() / 1024.0 / s),
+                String.format("Frames perdidos: %d (%.3f%%), fuera de orden: %d",
+                        lost, received + lost == 0 ? 0.0 : 100.0 * lost / (received + lost), outOfOrder.sum()),
+                String.format("Latencia tick a cliente (ms): p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                        percentile(50), percentile(90), percentile(99), percentile(99.9), percentile(100)),
+                String.format("Movimientos enviados: %d (%.0f/s)", moves.sum(), moves.sum() / s),
+                String.format("Partidas iniciadas: %d, terminadas: %d, errores: %d",
+                        gamesStarted.sum(), gamesFinished.sum(), errors.sum()));
+    }
+}
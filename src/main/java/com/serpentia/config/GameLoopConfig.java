@@ -0,0 +1,35 @@
+package com.serpentia.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuración del bucle de juego.
+ * Los ticks de cada sala se ejecutan en un pool dedicado, separado del hilo del
+ * scheduler de Spring, para que una sala lenta no retrase a las demás.
+ */
+@Configuration
+public class GameLoopConfig {
+
+    /**
+     * Pool de hilos para avanzar las salas en paralelo.
+     *
+     * @param threads Número de hilos; 0 usa la cantidad de procesadores disponibles
+     * @return Executor de ticks
+     */
+    @Bean(name = "gameTickExecutor", destroyMethod = "shutdown")
+    public ExecutorService gameTickExecutor(@Value("${serpentia.game.tick-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, "game-tick-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
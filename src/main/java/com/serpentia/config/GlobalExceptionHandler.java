@@ -2,6 +2,8 @@ package com.serpentia.config;
 
 import com.serpentia.exeptions.SerpentiaException;
 import com.serpentia.exeptions.ErrorDetails;
+import com.serpentia.exeptions.ServerBusyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -34,6 +36,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, ex.getStatus());
     }
 
+    /**
+     * Maneja el rechazo por falta de capacidad, indicando cuándo reintentar.
+     * @param ex excepción con los segundos sugeridos de espera
+     * @return respuesta 503 con la cabecera Retry-After
+     */
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<ErrorDetails> handleServerBusy(ServerBusyException ex) {
+        ErrorDetails errorDetails = ErrorDetails.builder()
+                .message(ex.getMessage())
+                .mensajeEspecial(ex.getMensajeEspecial())
+                .date(LocalDateTime.now())
+                .build();
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
     /**
      * Maneja excepciones estándar de Spring con código de estado.
      * @param ex excepción de tipo ResponseStatusException
@@ -1,14 +1,13 @@
 package com.serpentia.config;
-import com.serpentia.websocket.GameEventSubscriber;
+import com.serpentia.repository.CompactRedisSerializer;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.provider.redis.spring.RedisLockProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -27,19 +26,25 @@ public class RedisConfig {
      * almacenados en Redis. La configuración está optimizada para el almacenamiento
      * de salas de juego con sus propiedades complejas.<
      *
+     * <p>BoardState y RoomDTO se guardan con el formato binario de
+     * CompactRedisSerializer salvo que serpentia.redis.codec sea "json"; en ambos
+     * casos se leen los valores guardados en cualquiera de los dos formatos.</p>
+     *
      * @param connectionFactory Factory de conexión a Redis configurada automáticamente
+     * @param codec Formato de escritura de los valores: "compact" o "json"
      * @return RedisTemplate configurado para operaciones de cache
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${serpentia.redis.codec:compact}") String codec) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
         // Configurar serialización para claves (String)
         template.setKeySerializer(new StringRedisSerializer());
         
-        // Configurar serialización para valores (JSON para objetos complejos)
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // Configurar serialización para valores (binario compacto para tableros y salas, JSON para el resto)
+        template.setValueSerializer(new CompactRedisSerializer(!"json".equalsIgnoreCase(codec)));
 
         return template;
     }
@@ -50,11 +55,15 @@ public class RedisConfig {
     public LockProvider lockProvider(RedisConnectionFactory connectionFactory) {
         return new RedisLockProvider(connectionFactory);
     }
+    /**
+     * Contenedor de suscripciones Pub/Sub. Los canales de eventos por sala los agrega
+     * y quita GameChannelRegistry según las suscripciones STOMP locales, y los de
+     * entrada GameInputSubscriber según las salas que avanza este nodo.
+     */
     @Bean
-    public RedisMessageListenerContainer redisContainer(RedisConnectionFactory factory, GameEventSubscriber subscriber) {
+    public RedisMessageListenerContainer redisContainer(RedisConnectionFactory factory) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(factory);
-        container.addMessageListener(subscriber, new ChannelTopic("game-events"));
         return container;
     }
 }
\ No newline at end of file
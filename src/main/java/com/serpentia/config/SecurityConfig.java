@@ -22,6 +22,13 @@ import java.util.List;
 public class SecurityConfig {
     @Value("${URL_FRONT}")
     private String url;
+    @Value("${server.port:8080}")
+    private int serverPort;
+    /**
+     * Puerto interno de Actuator; -1 si Actuator comparte el puerto público
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
 
     public SecurityConfig(CustomAuthenticationEntryPoint customAuthenticationEntryPoint) {
@@ -44,6 +51,10 @@ public class SecurityConfig {
                         ).permitAll()
                         .requestMatchers("/ws/**", "/ws/info/**").permitAll()
                         .requestMatchers("/api/game/ws/info/**").permitAll()// <-- permite acceso anónimo
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // El resto de Actuator (Prometheus incluido) solo sin token en el puerto interno
+                        .requestMatchers(request -> managementPort > 0 && managementPort != serverPort
+                                && request.getLocalPort() == managementPort).permitAll()
                         .anyRequest().authenticated())
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(customAuthenticationEntryPoint))
                 .httpBasic(Customizer.withDefaults())
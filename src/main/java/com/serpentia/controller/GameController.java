@@ -1,10 +1,12 @@
 package com.serpentia.controller;
 
-import com.serpentia.model.BoardState;
+import com.serpentia.dto.GameStartDTO;
 import com.serpentia.dto.GameStateDTO;
 import com.serpentia.dto.RoomDTO;
 import com.serpentia.service.GameService;
 import com.serpentia.service.LobbyService;
+import com.serpentia.service.RoomAdmission;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,19 +16,27 @@ public class GameController {
 
     private final GameService gameService;
     private final LobbyService lobbyService;
+    private final RoomAdmission admission;
 
-    public GameController(GameService gs, LobbyService ls) {
+    public GameController(GameService gs, LobbyService ls, RoomAdmission admission) {
         this.gameService = gs;
         this.lobbyService = ls;
+        this.admission = admission;
     }
 
+    /**
+     * Inicia la partida (200) o la deja en cola hasta que el nodo tenga capacidad (202).
+     * Si la cola está llena responde 503 con Retry-After.
+     */
     @PostMapping("/start/{roomId}")
-    public void start(@PathVariable String roomId) {
+    public ResponseEntity<GameStartDTO> start(@PathVariable String roomId) {
         RoomDTO room = lobbyService.getRoom(roomId);
         if (room == null) {
-            return;
+            return ResponseEntity.ok().build();
         }
-        gameService.initRoom(roomId, room.getCurrentPlayers(), room.getGameMode(), room.getTargetScore());
+        GameStartDTO result = admission.requestStart(room);
+        HttpStatus status = "QUEUED".equals(result.getStatus()) ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result);
     }
   
     @DeleteMapping("/rooms/games")
@@ -36,11 +46,10 @@ public class GameController {
     
     @GetMapping("/state/{roomId}")
     public ResponseEntity<GameStateDTO> getGameState(@PathVariable String roomId) {
-        BoardState board = gameService.getBoardState(roomId);
-        if (board == null) {
+        GameStateDTO gameState = gameService.getGameState(roomId);
+        if (gameState == null) {
             return ResponseEntity.notFound().build();
         }
-        GameStateDTO gameState = new GameStateDTO(board, board.getPlayers());
         return ResponseEntity.ok(gameState);
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.serpentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de pedir el inicio de una partida.
+ * Si el nodo no tiene capacidad, la partida queda en cola y arranca sola (evento START
+ * en /topic/game/{roomId}) en cuanto se libere espacio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameStartDTO {
+
+    /**
+     * STARTED o QUEUED
+     */
+    private String status;
+
+    /**
+     * Posición en la cola de inicio (1 = la siguiente); 0 si ya inició
+     */
+    private int position;
+}
@@ -4,7 +4,9 @@ import com.serpentia.model.Point;
 import com.serpentia.model.BoardState;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import com.serpentia.enums.GameMode;
 
@@ -62,16 +64,17 @@ public class GameStateDTO {
     private Map<String, String> playerToTeam;
     
     /**
-     * Constructor que convierte un BoardState a GameStateDTO
+     * Constructor que convierte un BoardState a GameStateDTO.
+     * Copia las colecciones que cambian en cada tick.
      */
     public GameStateDTO(BoardState boardState, Map<String, com.serpentia.model.Player> players) {
         this.roomId = boardState.getRoomId();
         this.width = boardState.getWidth();
         this.height = boardState.getHeight();
-        this.fruits = boardState.getFruits();
+        this.fruits = new ArrayList<>(boardState.getFruits());
         this.status = boardState.getStatus();
         this.gameMode = boardState.getGameMode();
-        this.playerToTeam = boardState.getPlayerToTeam();
+        this.playerToTeam = new HashMap<>(boardState.getPlayerToTeam());
         
         // Convertir jugadores a DTOs
         this.players = players.values().stream()
@@ -56,8 +56,8 @@ public class PlayerDTO {
         this.score = player.getScore();
         this.alive = player.isAlive();
         
-        // Convertir Deque a List para el frontend
-        this.snake = new ArrayList<>(player.getSnake());
+        // Convertir el cuerpo empaquetado a List para el frontend
+        this.snake = player.getSnake() != null ? player.getSnake().toPoints() : new ArrayList<>();
     }
 
 } 
\ No newline at end of file
@@ -26,4 +26,5 @@ public class RoomDTO implements Serializable {
     private List<String> currentPlayers;
     private boolean isFull;
     private int targetScore;
+    private int tickRate; // Ticks por segundo pedidos para la sala (0 = el del modo de juego)
 }
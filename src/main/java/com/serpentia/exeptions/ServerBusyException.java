@@ -0,0 +1,29 @@
+package com.serpentia.exeptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Se lanza cuando el servidor no tiene capacidad para una sala o partida nueva.
+ * Se responde con 503 y la cabecera Retry-After.
+ */
+public class ServerBusyException extends SerpentiaException {
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message Mensaje técnico del error
+     * @param retryAfterSeconds Segundos sugeridos antes de reintentar
+     */
+    public ServerBusyException(String message, long retryAfterSeconds) {
+        super(message, "El servidor está muy ocupado. Intenta de nuevo en " + retryAfterSeconds + " segundos.",
+                HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Obtiene los segundos sugeridos antes de reintentar.
+     * @return valor de la cabecera Retry-After
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
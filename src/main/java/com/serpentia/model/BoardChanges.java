@@ -0,0 +1,81 @@
+package com.serpentia.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Partes de un BoardState modificadas desde que se guardó por última vez, para que
+ * el repositorio escriba en Redis solo los campos del hash que cambiaron.
+ *
+ * <p>Un tablero recién creado, o leído de un formato que no es el hash, se marca
+ * como completo: el siguiente guardado lo reescribe entero.</p>
+ */
+public class BoardChanges {
+
+    private final Set<String> snakes = new HashSet<>();
+    private final Set<String> players = new HashSet<>();
+    private boolean fruits;
+    private boolean teams;
+    private boolean full = true;
+
+    void snake(String playerId) {
+        snakes.add(playerId);
+    }
+
+    void player(String playerId) {
+        players.add(playerId);
+    }
+
+    void fruits() {
+        fruits = true;
+    }
+
+    void teams() {
+        teams = true;
+    }
+
+    /**
+     * Obliga a reescribir el tablero completo en el siguiente guardado.
+     */
+    public void all() {
+        full = true;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return Jugadores cuyo cuerpo o dirección cambió
+     */
+    public Set<String> snakes() {
+        return Collections.unmodifiableSet(snakes);
+    }
+
+    /**
+     * @return Jugadores cuyo puntaje, dirección o estado cambió
+     */
+    public Set<String> players() {
+        return Collections.unmodifiableSet(players);
+    }
+
+    public boolean fruitsChanged() {
+        return fruits;
+    }
+
+    public boolean teamsChanged() {
+        return teams;
+    }
+
+    /**
+     * Marca el tablero como sincronizado con Redis, tras guardarlo o leerlo del hash.
+     */
+    public void clear() {
+        snakes.clear();
+        players.clear();
+        fruits = false;
+        teams = false;
+        full = false;
+    }
+}
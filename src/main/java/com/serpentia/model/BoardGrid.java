@@ -0,0 +1,119 @@
+package com.serpentia.model;
+
+import java.util.Arrays;
+
+/**
+ * Índices en memoria de un tablero, con celdas codificadas como y * width + x.
+ * Mantiene la ocupación de serpientes, la posición de cada fruta dentro de la lista
+ * de frutas del tablero y un árbol de Fenwick con las celdas libres: consultar,
+ * ocupar o liberar una celda cuesta O(1) más O(log n) para el árbol, y elegir la
+ * n-ésima celda libre en orden de índice cuesta O(log n) sin importar el historial.
+ * No se serializa: BoardState lo reconstruye a partir de su estado.
+ */
+class BoardGrid {
+
+    private final int[] occupancy;
+    private final int[] fruitSlot;
+    private final boolean[] free;
+    /**
+     * Árbol de Fenwick de base 1: tree[i] cuenta las celdas libres en (i - lowbit(i), i]
+     */
+    private final int[] tree;
+    private final int topBit;
+    private int freeCount;
+    private int fruitCount;
+
+    BoardGrid(int cells) {
+        this.occupancy = new int[cells];
+        this.fruitSlot = new int[cells];
+        this.free = new boolean[cells];
+        this.tree = new int[cells + 1];
+        Arrays.fill(fruitSlot, -1);
+        Arrays.fill(free, true);
+        for (int i = 1; i <= cells; i++) {
+            tree[i] = i & -i;
+        }
+        this.topBit = cells > 0 ? Integer.highestOneBit(cells) : 0;
+        this.freeCount = cells;
+    }
+
+    boolean isOccupied(int cell) {
+        return occupancy[cell] > 0;
+    }
+
+    void addSegment(int cell) {
+        occupancy[cell]++;
+        refresh(cell);
+    }
+
+    void removeSegment(int cell) {
+        occupancy[cell]--;
+        refresh(cell);
+    }
+
+    /**
+     * @return Índice de la fruta en la lista del tablero o -1 si la celda no tiene fruta
+     */
+    int fruitSlot(int cell) {
+        return fruitSlot[cell];
+    }
+
+    void setFruit(int cell, int slot) {
+        if (fruitSlot[cell] < 0) {
+            fruitCount++;
+        }
+        fruitSlot[cell] = slot;
+        refresh(cell);
+    }
+
+    void clearFruit(int cell) {
+        if (fruitSlot[cell] >= 0) {
+            fruitCount--;
+        }
+        fruitSlot[cell] = -1;
+        refresh(cell);
+    }
+
+    int fruitCount() {
+        return fruitCount;
+    }
+
+    int freeCount() {
+        return freeCount;
+    }
+
+    /**
+     * Desciende por el árbol de Fenwick, así el resultado depende solo de qué celdas
+     * están libres y no del orden en que se ocuparon.
+     * @param n Posición entre las celdas libres en orden de índice, menor que freeCount()
+     * @return Celda libre número n
+     */
+    int nthFreeCell(int n) {
+        if (n < 0 || n >= freeCount) {
+            throw new IllegalArgumentException("Índice fuera de las celdas libres");
+        }
+        int pos = 0;
+        int remaining = n;
+        for (int step = topBit; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+    private void refresh(int cell) {
+        boolean nowFree = occupancy[cell] <= 0 && fruitSlot[cell] < 0;
+        if (nowFree == free[cell]) {
+            return;
+        }
+        free[cell] = nowFree;
+        int delta = nowFree ? 1 : -1;
+        freeCount += delta;
+        for (int i = cell + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
@@ -2,11 +2,16 @@ package com.serpentia.model;
 
 import com.serpentia.enums.GameMode;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Data
@@ -15,7 +20,7 @@ public class BoardState implements Serializable {
     private String roomId;
     private int width = 40;
     private int height = 30;
-    private Map<String, Deque<Point>> snakePositions = new HashMap<>();
+    private Map<String, SnakeBody> snakePositions = new HashMap<>();
     private Map<String, String> snakeDirections = new HashMap<>();
     private Map<String, Player> players = new HashMap<>();
     private Map<String, Team> teams = new HashMap<>();
@@ -24,29 +29,135 @@ public class BoardState implements Serializable {
     private String status; // WAITING, IN_GAME, FINISHED
     private GameMode gameMode = GameMode.COMPETITIVE; // Modo de juego por defecto
     private int targetScore; // Puntuación objetivo para ganar
+    private long tick; // Ticks simulados desde el inicio; monótono aunque la sala cambie de nodo
+    private int tickRate; // Ticks por segundo de la sala (0 = el del modo de juego)
+    /**
+     * Semilla con la que empezó la partida y estado actual del generador SplitMix64 de
+     * la sala. Con la semilla y los movimientos de cada tick la partida se reproduce
+     * igual. No viajan a los clientes para que no puedan anticipar las frutas.
+     */
+    @JsonIgnore
+    private long seed = ThreadLocalRandom.current().nextLong();
+    @JsonIgnore
+    private long rngState = seed;
     @JsonIgnore
     private static final String team1s = "team1";
     @JsonIgnore
     private static final String team2s = "team2";
     @JsonIgnore
-    private static final Random r = new Random();
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Índices de ocupación, frutas y celdas libres. Se actualizan al mover cabezas,
+     * recortar colas, eliminar jugadores y comer o generar frutas, y se reconstruyen
+     * desde snakePositions y fruits cuando el tablero llega deserializado desde Redis.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient BoardGrid grid;
+
+    /**
+     * Cambios pendientes de guardar; los registran los métodos que mutan el tablero.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient BoardChanges changes;
+
 
 
 
+    /**
+     * Reinicia el generador de la sala.
+     * @param seed Semilla de la partida
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        this.rngState = seed;
+    }
 
+    /**
+     * Genera una fruta en una celda libre elegida al azar con el generador de la sala.
+     * Se sortea una posición entre las celdas libres en orden de índice y se ubica en
+     * O(log n), así el costo no crece aunque el tablero esté casi lleno. La celda
+     * depende solo del estado del tablero y del generador.
+     * La nueva fruta queda al final de la lista de frutas.
+     * @return false si el tablero está lleno y no hay dónde colocarla
+     */
     @JsonIgnore
-    public void spawnFruit() {
-        while (true) {
-            Point candidate = new Point(r.nextInt(width), r.nextInt(height));
-            boolean collision = snakePositions.values().stream()
-                    .flatMap(d -> d.stream())
-                    .anyMatch(pt -> pt.equals(candidate));
+    public boolean spawnFruit() {
+        BoardGrid g = grid();
+        if (g.freeCount() == 0) {
+            return false;
+        }
+        int cell = g.nthFreeCell(nextRandom(g.freeCount()));
+        g.setFruit(cell, fruits.size());
+        fruits.add(new Point(cell % width, cell / width));
+        changes().fruits();
+        return true;
+    }
 
-            if (!collision) {
-                fruits.add(candidate);
-                break;
-            }
+    /**
+     * Entero uniforme en [0, bound) del generador de la sala, con el mismo rechazo
+     * que java.util.Random#nextInt(int) para no sesgar los valores.
+     */
+    private int nextRandom(int bound) {
+        int r = next31();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
         }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31()) {
+            // Descarta los valores del tramo final que sesgarían el módulo
+        }
+        return r;
+    }
+
+    /**
+     * Avanza el generador SplitMix64 y devuelve 31 bits de su salida.
+     */
+    private int next31() {
+        rngState += GOLDEN_GAMMA;
+        long z = rngState;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) ((z ^ (z >>> 31)) >>> 33);
+    }
+
+    /**
+     * Retira la fruta de una celda, si existe, en tiempo constante.
+     * El orden de la lista de frutas no se conserva.
+     * @param p Celda a revisar
+     * @return true si había una fruta y fue retirada
+     */
+    @JsonIgnore
+    public boolean removeFruit(Point p) {
+        return isInside(p) && removeFruit(cellIndex(p));
+    }
+
+    /**
+     * @param cell Celda codificada como y * width + x, dentro del tablero
+     * @return true si había una fruta y fue retirada
+     */
+    @JsonIgnore
+    public boolean removeFruit(int cell) {
+        BoardGrid g = grid();
+        int slot = g.fruitSlot(cell);
+        if (slot < 0) {
+            return false;
+        }
+        int lastSlot = fruits.size() - 1;
+        Point last = fruits.remove(lastSlot);
+        if (slot != lastSlot) {
+            fruits.set(slot, last);
+            g.setFruit(cellIndex(last), slot);
+        }
+        g.clearFruit(cell);
+        changes().fruits();
+        return true;
     }
 
     /**
@@ -57,10 +168,14 @@ public class BoardState implements Serializable {
      */
     @JsonIgnore
     public void addPlayer(String playerName, String color, Point initialPosition) {
-        Player player = new Player(playerName, color, initialPosition);
+        BoardGrid g = grid();
+        Player player = new Player(playerName, color, SnakeBody.of(width, initialPosition));
         players.put(playerName, player);
         snakePositions.put(playerName, player.getSnake());
         snakeDirections.put(playerName, player.getDirection());
+        if (isInside(initialPosition)) {
+            g.addSegment(cellIndex(initialPosition));
+        }
     }
 
     /**
@@ -106,7 +221,46 @@ public class BoardState implements Serializable {
         Player player = players.get(playerId);
         if (player != null) {
             player.addScore(points);
+            changes().player(playerId);
+        }
+    }
+
+    /**
+     * Suma puntos a un equipo
+     * @param teamId ID del equipo
+     * @param points Puntos a agregar
+     * @return Puntaje del equipo tras sumar, o -1 si el equipo no existe
+     */
+    @JsonIgnore
+    public int addScoreToTeam(String teamId, int points) {
+        Team team = teamId != null ? teams.get(teamId) : null;
+        if (team == null) {
+            return -1;
+        }
+        team.addScore(points);
+        changes().teams();
+        return team.getTeamScore();
+    }
+
+    /**
+     * Cambia la dirección de un jugador en snakeDirections y en su Player
+     * @param playerId ID del jugador
+     * @param direction Nueva dirección
+     * @return false si el jugador no tiene serpiente en el tablero
+     */
+    @JsonIgnore
+    public boolean setPlayerDirection(String playerId, String direction) {
+        if (!snakePositions.containsKey(playerId)) {
+            return false;
+        }
+        snakeDirections.put(playerId, direction);
+        changes().snake(playerId);
+        Player player = players.get(playerId);
+        if (player != null) {
+            player.setDirection(direction);
+            changes().player(playerId);
         }
+        return true;
     }
 
     /**
@@ -115,12 +269,194 @@ public class BoardState implements Serializable {
      */
     @JsonIgnore
     public void eliminatePlayer(String playerId) {
+        BoardGrid g = grid();
         Player player = players.get(playerId);
         if (player != null) {
             player.eliminate();
+            changes().player(playerId);
         }
-        snakePositions.remove(playerId);
+        changes().snake(playerId);
+        SnakeBody body = snakePositions.remove(playerId);
         snakeDirections.remove(playerId);
+        if (body != null) {
+            for (int i = 0; i < body.size(); i++) {
+                g.removeSegment(body.get(i));
+            }
+        }
+    }
+
+    /**
+     * Indica si un punto está dentro de los límites del tablero
+     * @param p Punto a evaluar
+     * @return true si el punto está dentro del tablero
+     */
+    @JsonIgnore
+    public boolean isInside(Point p) {
+        return p.getX() >= 0 && p.getX() < width && p.getY() >= 0 && p.getY() < height;
+    }
+
+    /**
+     * Indica si alguna serpiente ocupa la celda en tiempo constante.
+     * Equivale a recorrer todos los cuerpos de snakePositions buscando el punto.
+     * @param p Punto a evaluar
+     * @return true si la celda contiene al menos un segmento de serpiente
+     */
+    @JsonIgnore
+    public boolean isOccupied(Point p) {
+        return isInside(p) && grid().isOccupied(cellIndex(p));
+    }
+
+    /**
+     * @param cell Celda codificada como y * width + x, dentro del tablero
+     * @return true si la celda contiene al menos un segmento de serpiente
+     */
+    @JsonIgnore
+    public boolean isOccupied(int cell) {
+        return grid().isOccupied(cell);
+    }
+
+    /**
+     * Calcula la celda a la que avanza una cabeza en una dirección.
+     * Una dirección desconocida deja la cabeza en su lugar.
+     * @param cell Celda actual de la cabeza
+     * @param dir Dirección (UP, DOWN, LEFT, RIGHT)
+     * @return Nueva celda o -1 si sale del tablero
+     */
+    @JsonIgnore
+    public int nextCell(int cell, String dir) {
+        int x = cell % width;
+        int y = cell / width;
+        switch (dir == null ? "" : dir) {
+            case "UP" -> y--;
+            case "DOWN" -> y++;
+            case "LEFT" -> x--;
+            case "RIGHT" -> x++;
+            default -> { }
+        }
+        return x < 0 || x >= width || y < 0 || y >= height ? -1 : y * width + x;
+    }
+
+    /**
+     * Agrega una nueva cabeza a la serpiente de un jugador y marca la celda como ocupada
+     * @param playerId ID del jugador
+     * @param head Nueva cabeza
+     */
+    @JsonIgnore
+    public void pushHead(String playerId, Point head) {
+        pushHead(playerId, cellIndex(head));
+    }
+
+    /**
+     * @param playerId ID del jugador
+     * @param cell Nueva cabeza codificada como y * width + x, dentro del tablero
+     */
+    @JsonIgnore
+    public void pushHead(String playerId, int cell) {
+        BoardGrid g = grid();
+        SnakeBody body = snakePositions.get(playerId);
+        if (body != null) {
+            body.addFirst(cell);
+            g.addSegment(cell);
+            changes().snake(playerId);
+        }
+    }
+
+    /**
+     * Retira la cola de la serpiente de un jugador y libera su celda
+     * @param playerId ID del jugador
+     * @return Celda retirada o -1 si la serpiente no existe o está vacía
+     */
+    @JsonIgnore
+    public int popTail(String playerId) {
+        BoardGrid g = grid();
+        SnakeBody body = snakePositions.get(playerId);
+        if (body == null || body.isEmpty()) {
+            return -1;
+        }
+        int tail = body.pollLast();
+        g.removeSegment(tail);
+        changes().snake(playerId);
+        return tail;
+    }
+
+    public void setSnakePositions(Map<String, SnakeBody> snakePositions) {
+        this.snakePositions = snakePositions;
+        this.grid = null;
+        changes().all();
+    }
+
+    public void setFruits(List<Point> fruits) {
+        this.fruits = fruits;
+        this.grid = null;
+        changes().fruits();
+    }
+
+    /**
+     * Cambios desde el último guardado. Las modificaciones hechas directamente sobre
+     * los mapas o listas expuestos por los getters no se registran; quien las haga
+     * debe llamar a {@code changes().all()}.
+     * @return Cambios pendientes de este tablero
+     */
+    @JsonIgnore
+    public BoardChanges changes() {
+        if (changes == null) {
+            changes = new BoardChanges();
+        }
+        return changes;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+        this.grid = null;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+        this.grid = null;
+    }
+
+    private int cellIndex(Point p) {
+        return p.getY() * width + p.getX();
+    }
+
+    /**
+     * Devuelve los índices del tablero, reconstruyéndolos si aún no existen o si la
+     * lista de frutas se modificó por fuera de spawnFruit/removeFruit. Al reconstruir
+     * también recodifica los cuerpos con el ancho del tablero y vuelve a enlazar
+     * Player.snake con snakePositions, que tras deserializar son objetos distintos.
+     */
+    private BoardGrid grid() {
+        if (grid == null || grid.fruitCount() != fruits.size()) {
+            BoardGrid g = new BoardGrid(width * height);
+            for (Map.Entry<String, SnakeBody> e : snakePositions.entrySet()) {
+                SnakeBody body = e.getValue();
+                body.rebase(width);
+                for (int i = 0; i < body.size(); i++) {
+                    int c = body.get(i);
+                    if (c >= 0 && c < width * height) {
+                        g.addSegment(c);
+                    }
+                }
+                Player player = players.get(e.getKey());
+                if (player != null) {
+                    player.setSnake(body);
+                }
+            }
+            List<Point> indexed = new ArrayList<>(fruits.size());
+            for (Point fruit : fruits) {
+                if (isInside(fruit) && g.fruitSlot(cellIndex(fruit)) < 0) {
+                    g.setFruit(cellIndex(fruit), indexed.size());
+                    indexed.add(fruit);
+                }
+            }
+            if (indexed.size() != fruits.size()) {
+                // Descarta frutas duplicadas o fuera del tablero para que el índice sea exacto
+                fruits.clear();
+                fruits.addAll(indexed);
+            }
+            grid = g;
+        }
+        return grid;
     }
 
     /**
@@ -158,19 +494,18 @@ public class BoardState implements Serializable {
     @JsonIgnore
     public void reconstructPlayersIfNeeded() {
         if (players.isEmpty() && !snakePositions.isEmpty()) {
+            changes().all();
             String[] colors = {"red", "green", "blue", "yellow", "magenta", "cyan"};
             int colorIndex = 0;
             
             for (String playerId : snakePositions.keySet()) {
-                Deque<Point> snake = snakePositions.get(playerId);
+                SnakeBody snake = snakePositions.get(playerId);
                 String direction = snakeDirections.get(playerId);
                 
                 if (!snake.isEmpty()) {
-                    Point initialPosition = snake.peekFirst();
                     String color = colors[colorIndex % colors.length];
                     
-                    Player player = new Player(playerId, color, initialPosition);
-                    player.setSnake(snake);
+                    Player player = new Player(playerId, color, snake);
                     player.setDirection(direction);
                     
 
@@ -202,6 +537,7 @@ public class BoardState implements Serializable {
 
             teams.put(team1s, team1);
             teams.put(team2s, team2);
+            changes().teams();
 
             // Mapear jugadores a equipos
             for (int i = 0; i < 4; i++) {
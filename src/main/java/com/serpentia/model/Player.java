@@ -6,8 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
-import java.util.Deque;
-import java.util.ArrayDeque;
 
 /**
  * Clase que representa un jugador durante una partida de Serpentia.
@@ -33,7 +31,7 @@ public class Player implements Serializable {
     /**
      * Posiciones de la serpiente (cuerpo completo)
      */
-    private Deque<Point> snake;
+    private SnakeBody snake;
     
     /**
      * Dirección actual del movimiento
@@ -57,13 +55,20 @@ public class Player implements Serializable {
 
     
     /**
-     * Constructor principal para crear un jugador
+     * Constructor para crear un jugador sin conocer el tablero; BoardState
+     * recodifica el cuerpo con su ancho al incorporarlo.
      */
     public Player(String name, String color, Point initialPosition) {
+        this(name, color, SnakeBody.of(SnakeBody.DEFAULT_WIDTH, initialPosition));
+    }
+
+    /**
+     * Constructor principal para crear un jugador
+     */
+    public Player(String name, String color, SnakeBody snake) {
         this.name = name;
         this.color = color;
-        this.snake = new ArrayDeque<>();
-        this.snake.add(initialPosition);
+        this.snake = snake;
         this.direction = "RIGHT";
         this.score = 0;
         this.alive = true;
@@ -0,0 +1,324 @@
+package com.serpentia.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuerpo de una serpiente como buffer circular de enteros, con cada celda
+ * codificada como y * width + x. El primer elemento es la cabeza y el último la cola.
+ * En JSON se expone como la lista de puntos {x, y} de siempre, así que el
+ * frontend no nota el cambio de representación.
+ */
+@JsonSerialize(using = SnakeBody.Serializer.class)
+@JsonDeserialize(using = SnakeBody.Deserializer.class)
+public class SnakeBody implements Serializable {
+
+    /**
+     * Ancho provisional para cuerpos creados sin conocer el tablero (por ejemplo al
+     * deserializar); BoardState los recodifica con su ancho real mediante rebase.
+     */
+    public static final int DEFAULT_WIDTH = 1 << 15;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int width;
+    private int[] cells;
+    private int head;
+    private int size;
+
+    public SnakeBody(int width) {
+        this(width, MIN_CAPACITY);
+    }
+
+    public SnakeBody(int width, int capacity) {
+        this.width = width;
+        this.cells = new int[Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1)];
+    }
+
+    /**
+     * Crea un cuerpo de un solo segmento
+     * @param width Ancho del tablero
+     * @param position Posición inicial
+     */
+    public static SnakeBody of(int width, Point position) {
+        SnakeBody body = new SnakeBody(width);
+        body.addFirst(body.cell(position.getX(), position.getY()));
+        return body;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cell(int x, int y) {
+        return y * width + x;
+    }
+
+    public int x(int cell) {
+        return cell % width;
+    }
+
+    public int y(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Agrega una nueva cabeza
+     * @param cell Celda codificada con el ancho de este cuerpo
+     */
+    public void addFirst(int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+        head = (head - 1) & (cells.length - 1);
+        cells[head] = cell;
+        size++;
+    }
+
+    /**
+     * Agrega un segmento al final (usado al reconstruir cuerpos)
+     */
+    public void addLast(int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+        cells[(head + size) & (cells.length - 1)] = cell;
+        size++;
+    }
+
+    /**
+     * @return Celda de la cabeza o -1 si el cuerpo está vacío
+     */
+    public int peekFirst() {
+        return size == 0 ? -1 : cells[head];
+    }
+
+    /**
+     * Retira la cola
+     * @return Celda retirada o -1 si el cuerpo está vacío
+     */
+    public int pollLast() {
+        if (size == 0) {
+            return -1;
+        }
+        size--;
+        return cells[(head + size) & (cells.length - 1)];
+    }
+
+    /**
+     * @param index Posición desde la cabeza (0 = cabeza)
+     * @return Celda en esa posición
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return cells[(head + index) & (cells.length - 1)];
+    }
+
+    public boolean contains(int cell) {
+        for (int i = 0; i < size; i++) {
+            if (get(i) == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Cabeza como punto o null si el cuerpo está vacío
+     */
+    public Point headPoint() {
+        return size == 0 ? null : toPoint(cells[head]);
+    }
+
+    public Point toPoint(int cell) {
+        return new Point(x(cell), y(cell));
+    }
+
+    /**
+     * @return Copia independiente con solo los segmentos en uso, sin crear Points
+     */
+    public SnakeBody copy() {
+        SnakeBody copy = new SnakeBody(width, size);
+        int first = Math.min(size, cells.length - head);
+        System.arraycopy(cells, head, copy.cells, 0, first);
+        System.arraycopy(cells, 0, copy.cells, first, size - first);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Convierte el cuerpo a la lista de puntos que consume el frontend
+     */
+    public List<Point> toPoints() {
+        List<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(toPoint(get(i)));
+        }
+        return points;
+    }
+
+    /**
+     * Recodifica las celdas con otro ancho de tablero
+     * @param newWidth Nuevo ancho
+     */
+    public void rebase(int newWidth) {
+        if (newWidth == width) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            int idx = (head + i) & (cells.length - 1);
+            int c = cells[idx];
+            cells[idx] = (c / width) * newWidth + c % width;
+        }
+        width = newWidth;
+    }
+
+    private void grow() {
+        int[] grown = new int[cells.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = cells[(head + i) & (cells.length - 1)];
+        }
+        cells = grown;
+        head = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SnakeBody other) || other.size != size) return false;
+        for (int i = 0; i < size; i++) {
+            int a = get(i);
+            int b = other.get(i);
+            if (x(a) != other.x(b) || y(a) != other.y(b)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            int c = get(i);
+            h = 31 * h + x(c);
+            h = 31 * h + y(c);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return toPoints().toString();
+    }
+
+    /**
+     * Escribe el cuerpo como arreglo de puntos {x, y}. Con tipado por defecto (Redis)
+     * se envuelve en ["tipo", [...]] como cualquier colección.
+     */
+    public static class Serializer extends JsonSerializer<SnakeBody> {
+        @Override
+        public void serialize(SnakeBody body, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(body, body.size());
+            writePoints(body, gen);
+            gen.writeEndArray();
+        }
+
+        @Override
+        public void serializeWithType(SnakeBody body, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(body, JsonToken.START_ARRAY));
+            writePoints(body, gen);
+            typeSer.writeTypeSuffix(gen, typeId);
+        }
+
+        private void writePoints(SnakeBody body, JsonGenerator gen) throws IOException {
+            for (int i = 0; i < body.size(); i++) {
+                int c = body.get(i);
+                gen.writeStartObject();
+                gen.writeNumberField("x", body.x(c));
+                gen.writeNumberField("y", body.y(c));
+                gen.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * Lee tanto el arreglo plano de puntos como el formato con tipo que guardaba Redis
+     * (["java.util.ArrayDeque", [{"@class": ..., "x": .., "y": ..}]]), ignorando el tipo.
+     */
+    public static class Deserializer extends JsonDeserializer<SnakeBody> {
+        @Override
+        public SnakeBody deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return (SnakeBody) ctxt.handleUnexpectedToken(SnakeBody.class, p);
+            }
+            JsonToken t = p.nextToken();
+            if (t == JsonToken.VALUE_STRING) {
+                p.nextToken();
+                SnakeBody body = readPoints(p, ctxt);
+                p.nextToken();
+                return body;
+            }
+            return readPoints(p, ctxt);
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt,
+                                          TypeDeserializer typeDeserializer) throws IOException {
+            return deserialize(p, ctxt);
+        }
+
+        /**
+         * Lee puntos hasta el END_ARRAY; el parser debe estar en START_ARRAY o en el primer elemento.
+         */
+        private SnakeBody readPoints(JsonParser p, DeserializationContext ctxt) throws IOException {
+            SnakeBody body = new SnakeBody(DEFAULT_WIDTH);
+            JsonToken t = p.currentToken() == JsonToken.START_ARRAY ? p.nextToken() : p.currentToken();
+            while (t != JsonToken.END_ARRAY) {
+                if (t != JsonToken.START_OBJECT) {
+                    return (SnakeBody) ctxt.handleUnexpectedToken(SnakeBody.class, p);
+                }
+                int x = 0;
+                int y = 0;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if ("x".equals(field)) {
+                        x = p.getIntValue();
+                    } else if ("y".equals(field)) {
+                        y = p.getIntValue();
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                body.addLast(body.cell(x, y));
+                t = p.nextToken();
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.serpentia.repository;
+
+import com.serpentia.model.BoardChanges;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Player;
+import com.serpentia.model.SnakeBody;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparte un BoardState en los campos de un hash de Redis para poder guardar solo
+ * lo que cambió en cada tick:
+ * <ul>
+ *   <li>"meta": sala, dimensiones, estado, modo, objetivo, tick, frecuencia y generador de la sala</li>
+ *   <li>"snake:{jugador}": dirección y cuerpo de cada serpiente viva</li>
+ *   <li>"player:{jugador}": color, dirección, puntajes y estado; el cuerpo solo si ya no está en el tablero</li>
+ *   <li>"teams": equipos y asignación de jugadores</li>
+ *   <li>"fruits": frutas</li>
+ * </ul>
+ * Cada campo usa el formato binario de CompactRedisSerializer con su propio tipo.
+ */
+final class BoardHashCodec {
+
+    static final String META = "meta";
+    static final String TEAMS = "teams";
+    static final String FRUITS = "fruits";
+    static final String SNAKE = "snake:";
+    static final String PLAYER = "player:";
+
+    static final byte TYPE_META = 3;
+    static final byte TYPE_SNAKE = 4;
+    static final byte TYPE_PLAYER = 5;
+    static final byte TYPE_TEAMS = 6;
+    static final byte TYPE_FRUITS = 7;
+
+    private BoardHashCodec() {
+    }
+
+    /**
+     * @return Todos los campos del tablero
+     */
+    static Map<String, byte[]> encodeAll(BoardState b) {
+        Map<String, byte[]> fields = new LinkedHashMap<>();
+        fields.put(META, meta(b));
+        for (String name : b.getSnakePositions().keySet()) {
+            fields.put(SNAKE + name, snake(b, name));
+        }
+        for (String name : b.getPlayers().keySet()) {
+            fields.put(PLAYER + name, player(b, name));
+        }
+        fields.put(TEAMS, teams(b));
+        fields.put(FRUITS, fruits(b));
+        return fields;
+    }
+
+    /**
+     * Campos a escribir y a borrar según los cambios registrados en el tablero. Los
+     * datos generales se escriben siempre porque el tick cambia en cada guardado.
+     * @param set Recibe los campos a escribir
+     * @param delete Recibe los campos que ya no existen (serpientes eliminadas)
+     */
+    static void encodeChanges(BoardState b, Map<String, byte[]> set, List<String> delete) {
+        BoardChanges changes = b.changes();
+        if (changes.isFull()) {
+            set.putAll(encodeAll(b));
+            for (String name : b.getPlayers().keySet()) {
+                if (!b.getSnakePositions().containsKey(name)) {
+                    delete.add(SNAKE + name);
+                }
+            }
+            return;
+        }
+        set.put(META, meta(b));
+        for (String name : changes.snakes()) {
+            if (b.getSnakePositions().containsKey(name)) {
+                set.put(SNAKE + name, snake(b, name));
+            } else {
+                delete.add(SNAKE + name);
+            }
+        }
+        for (String name : changes.players()) {
+            if (b.getPlayers().containsKey(name)) {
+                set.put(PLAYER + name, player(b, name));
+            } else {
+                delete.add(PLAYER + name);
+            }
+        }
+        if (changes.teamsChanged()) {
+            set.put(TEAMS, teams(b));
+        }
+        if (changes.fruitsChanged()) {
+            set.put(FRUITS, fruits(b));
+        }
+    }
+
+    /**
+     * Un hash al que le faltan "meta", "teams", "fruits" o el jugador de alguna serpiente
+     * quedó a medias (por ejemplo, un guardado parcial sobre una sala ya borrada) y se
+     * trata como ausente.
+     * @param fields Campos del hash
+     * @return Tablero sin cambios pendientes, o null si el hash está incompleto
+     */
+    static BoardState decode(Map<String, byte[]> fields) {
+        byte[] meta = fields.get(META);
+        if (meta == null || !fields.containsKey(TEAMS) || !fields.containsKey(FRUITS)) {
+            return null;
+        }
+        try {
+            return read(meta, fields);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Campo binario truncado", e);
+        }
+    }
+
+    private static BoardState read(byte[] meta, Map<String, byte[]> fields) {
+        BoardState b = CompactRedisSerializer.readMeta(open(meta, TYPE_META));
+        int width = b.getWidth();
+        Map<String, SnakeBody> snakes = new HashMap<>();
+        Map<String, String> directions = new HashMap<>();
+        Map<String, Player> players = new HashMap<>();
+        for (Map.Entry<String, byte[]> e : fields.entrySet()) {
+            String field = e.getKey();
+            if (field.startsWith(SNAKE)) {
+                String name = field.substring(SNAKE.length());
+                CodecReader in = open(e.getValue(), TYPE_SNAKE);
+                String dir = in.direction();
+                if (dir != null) {
+                    directions.put(name, dir);
+                }
+                snakes.put(name, CompactRedisSerializer.readBody(in, width));
+            } else if (field.startsWith(PLAYER)) {
+                Player p = CompactRedisSerializer.readPlayer(open(e.getValue(), TYPE_PLAYER), width);
+                players.put(field.substring(PLAYER.length()), p);
+            } else if (field.equals(TEAMS)) {
+                CompactRedisSerializer.readTeams(open(e.getValue(), TYPE_TEAMS), b);
+            } else if (field.equals(FRUITS)) {
+                CompactRedisSerializer.readFruits(open(e.getValue(), TYPE_FRUITS), b);
+            }
+        }
+        if (!players.keySet().containsAll(snakes.keySet())) {
+            return null;
+        }
+        for (Map.Entry<String, Player> e : players.entrySet()) {
+            SnakeBody live = snakes.get(e.getKey());
+            if (live != null) {
+                e.getValue().setSnake(live);
+            }
+        }
+        b.setPlayers(players);
+        b.setSnakePositions(snakes);
+        b.setSnakeDirections(directions);
+        b.changes().clear();
+        return b;
+    }
+
+    private static byte[] meta(BoardState b) {
+        CodecWriter out = new CodecWriter(TYPE_META);
+        CompactRedisSerializer.writeMeta(out, b);
+        return out.toByteArray();
+    }
+
+    private static byte[] snake(BoardState b, String name) {
+        CodecWriter out = new CodecWriter(TYPE_SNAKE);
+        out.direction(b.getSnakeDirections().get(name));
+        CompactRedisSerializer.writeBody(out, b.getSnakePositions().get(name), b.getWidth());
+        return out.toByteArray();
+    }
+
+    private static byte[] player(BoardState b, String name) {
+        Player p = b.getPlayers().get(name);
+        CodecWriter out = new CodecWriter(TYPE_PLAYER);
+        // El cuerpo de una serpiente viva ya está en su campo "snake:"
+        boolean detached = p.getSnake() != null && b.getSnakePositions().get(name) != p.getSnake();
+        CompactRedisSerializer.writePlayer(out, p, b.getWidth(), detached);
+        return out.toByteArray();
+    }
+
+    private static byte[] teams(BoardState b) {
+        CodecWriter out = new CodecWriter(TYPE_TEAMS);
+        CompactRedisSerializer.writeTeams(out, b);
+        return out.toByteArray();
+    }
+
+    private static byte[] fruits(BoardState b) {
+        CodecWriter out = new CodecWriter(TYPE_FRUITS);
+        CompactRedisSerializer.writeFruits(out, b);
+        return out.toByteArray();
+    }
+
+    private static CodecReader open(byte[] bytes, byte type) {
+        CodecReader in = CodecReader.open(bytes);
+        if (in.type() != type) {
+            throw new SerializationException("Campo con tipo inesperado: " + in.type());
+        }
+        return in;
+    }
+}
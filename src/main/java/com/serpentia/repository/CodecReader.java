@@ -0,0 +1,118 @@
+package com.serpentia.repository;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector del formato binario escrito por {@link CodecWriter}.
+ */
+final class CodecReader {
+
+    private final byte[] buf;
+    private int pos;
+
+    private CodecReader(byte[] buf, int pos) {
+        this.buf = buf;
+        this.pos = pos;
+    }
+
+    /**
+     * Valida la cabecera de un valor binario. Solo se acepta la versión actual.
+     * @param bytes Valor que empieza con el byte mágico
+     * @return Lector posicionado tras la cabecera
+     * @throws SerializationException si la versión no es conocida o el valor está truncado
+     */
+    static CodecReader open(byte[] bytes) {
+        if (bytes.length < 3 || bytes[0] != CompactRedisSerializer.MAGIC) {
+            throw new SerializationException("Valor binario truncado");
+        }
+        if (bytes[1] != CompactRedisSerializer.VERSION) {
+            throw new SerializationException("Versión de formato no soportada: " + bytes[1]);
+        }
+        return new CodecReader(bytes, 3);
+    }
+
+    /**
+     * @return Tipo del valor según su cabecera
+     */
+    byte type() {
+        return buf[2];
+    }
+
+    int varint() {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf[pos++];
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new SerializationException("Varint mal formado");
+    }
+
+    long varlong() {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf[pos++];
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new SerializationException("Varint mal formado");
+    }
+
+    long fixed64() {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (buf[pos++] & 0xFF);
+        }
+        return v;
+    }
+
+    int zigzag() {
+        int v = varint();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    boolean bool() {
+        return buf[pos++] != 0;
+    }
+
+    String string() {
+        int len = varint() - 1;
+        if (len < 0) {
+            return null;
+        }
+        if (len > buf.length - pos) {
+            throw new SerializationException("Valor binario truncado");
+        }
+        String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+        pos += len;
+        return s;
+    }
+
+    List<String> strings() {
+        int size = varint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(string());
+        }
+        return list;
+    }
+
+    String direction() {
+        int code = buf[pos++];
+        if (code == 0) {
+            return null;
+        }
+        return code <= CodecWriter.DIRECTIONS.length ? CodecWriter.DIRECTIONS[code - 1] : string();
+    }
+}
@@ -0,0 +1,118 @@
+package com.serpentia.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer de escritura del formato binario de CompactRedisSerializer: cabecera de
+ * tres bytes, enteros varint (LEB128) y cadenas UTF-8 con prefijo de largo.
+ */
+final class CodecWriter {
+
+    static final String[] DIRECTIONS = {"UP", "DOWN", "LEFT", "RIGHT"};
+
+    private byte[] buf = new byte[256];
+    private int count;
+
+    /**
+     * @param type Tipo del valor, escrito tras el byte mágico y la versión
+     */
+    CodecWriter(byte type) {
+        write(CompactRedisSerializer.MAGIC);
+        write(CompactRedisSerializer.VERSION);
+        write(type);
+    }
+
+    void write(int b) {
+        if (count == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length << 1);
+        }
+        buf[count++] = (byte) b;
+    }
+
+    void write(byte[] bytes) {
+        if (count + bytes.length > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + bytes.length));
+        }
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    void varint(int v) {
+        while ((v & ~0x7F) != 0) {
+            write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        write(v);
+    }
+
+    void varlong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        write((int) v);
+    }
+
+    /**
+     * Ocho bytes big-endian, para valores que ocupan los 64 bits (semillas, estado del generador).
+     */
+    void fixed64(long v) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            write((int) (v >>> shift));
+        }
+    }
+
+    void zigzag(int v) {
+        varint((v << 1) ^ (v >> 31));
+    }
+
+    void bool(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    /**
+     * Largo + 1 seguido de los bytes; 0 representa null.
+     */
+    void string(String s) {
+        if (s == null) {
+            varint(0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length + 1);
+        write(bytes);
+    }
+
+    void strings(List<String> list) {
+        if (list == null) {
+            varint(0);
+            return;
+        }
+        varint(list.size() + 1);
+        list.forEach(this::string);
+    }
+
+    /**
+     * Las cuatro direcciones conocidas ocupan un byte; cualquier otro valor va como cadena.
+     */
+    void direction(String dir) {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (DIRECTIONS[i].equals(dir)) {
+                write(i + 1);
+                return;
+            }
+        }
+        if (dir == null) {
+            write(0);
+        } else {
+            write(DIRECTIONS.length + 1);
+            string(dir);
+        }
+    }
+}
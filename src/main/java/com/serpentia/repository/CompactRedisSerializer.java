@@ -0,0 +1,341 @@
+package com.serpentia.repository;
+
+import com.serpentia.dto.RoomDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Player;
+import com.serpentia.model.Point;
+import com.serpentia.model.SnakeBody;
+import com.serpentia.model.Team;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializador de valores de Redis con formato binario compacto para BoardState y
+ * RoomDTO, los valores que se leen y escriben en cada tick o en cada consulta del lobby.
+ *
+ * <p>Formato: byte mágico 0xC5, versión del esquema, tipo del valor y los campos en
+ * orden fijo, con enteros como varint y sin nombres de campo ni metadatos "@class".
+ * Cada cuerpo de serpiente se escribe una sola vez aunque esté referenciado desde
+ * snakePositions y desde su Player. Cualquier otro tipo se escribe como JSON con
+ * GenericJackson2JsonRedisSerializer, y la lectura acepta tanto el formato binario
+ * como el JSON guardado antes de este cambio: ningún JSON válido empieza con 0xC5.</p>
+ *
+ * <p>Solo se lee la versión actual: cualquier otra falla con SerializationException
+ * en lugar de interpretar mal los bytes. La versión 2 agregó la semilla y el estado
+ * del generador de la sala; la 1 ya no se acepta.</p>
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 2;
+    static final byte TYPE_BOARD = 1;
+    static final byte TYPE_ROOM = 2;
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final boolean writeCompact;
+
+    /**
+     * @param writeCompact false para seguir escribiendo JSON (por ejemplo mientras
+     *                     quedan nodos sin este serializador); la lectura acepta ambos
+     */
+    public CompactRedisSerializer(boolean writeCompact) {
+        this.writeCompact = writeCompact;
+    }
+
+    public CompactRedisSerializer() {
+        this(true);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (writeCompact && value instanceof BoardState board) {
+            CodecWriter out = new CodecWriter(TYPE_BOARD);
+            writeBoard(out, board);
+            return out.toByteArray();
+        }
+        if (writeCompact && value instanceof RoomDTO room) {
+            CodecWriter out = new CodecWriter(TYPE_ROOM);
+            writeRoom(out, room);
+            return out.toByteArray();
+        }
+        return json.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return json.deserialize(bytes);
+        }
+        CodecReader in = CodecReader.open(bytes);
+        try {
+            return switch (in.type()) {
+                case TYPE_BOARD -> readBoard(in);
+                case TYPE_ROOM -> readRoom(in);
+                default -> throw new SerializationException("Tipo de valor desconocido: " + in.type());
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Valor binario truncado", e);
+        }
+    }
+
+    private void writeBoard(CodecWriter out, BoardState b) {
+        int width = b.getWidth();
+        writeMeta(out, b);
+
+        Map<String, Player> players = nonNull(b.getPlayers());
+        out.varint(players.size());
+        for (Player p : players.values()) {
+            writePlayer(out, p, width, true);
+        }
+
+        // Los cuerpos vivos suelen ser el mismo objeto que Player.snake: se referencian por nombre
+        Map<String, SnakeBody> snakes = nonNull(b.getSnakePositions());
+        out.varint(snakes.size());
+        for (Map.Entry<String, SnakeBody> e : snakes.entrySet()) {
+            out.string(e.getKey());
+            Player owner = players.get(e.getKey());
+            boolean shared = owner != null && owner.getSnake() == e.getValue();
+            out.bool(shared);
+            if (!shared) {
+                writeBody(out, e.getValue(), width);
+            }
+        }
+
+        Map<String, String> directions = nonNull(b.getSnakeDirections());
+        out.varint(directions.size());
+        for (Map.Entry<String, String> e : directions.entrySet()) {
+            out.string(e.getKey());
+            out.direction(e.getValue());
+        }
+
+        writeTeams(out, b);
+        writeFruits(out, b);
+    }
+
+    private BoardState readBoard(CodecReader in) {
+        BoardState b = readMeta(in);
+        int width = b.getWidth();
+
+        int count = in.varint();
+        Map<String, Player> players = new HashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            Player p = readPlayer(in, width);
+            players.put(p.getName(), p);
+        }
+        b.setPlayers(players);
+
+        count = in.varint();
+        Map<String, SnakeBody> snakes = new HashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            String name = in.string();
+            if (!in.bool()) {
+                snakes.put(name, readBody(in, width));
+                continue;
+            }
+            Player owner = players.get(name);
+            if (owner == null) {
+                throw new SerializationException("Serpiente compartida sin jugador: " + name);
+            }
+            snakes.put(name, owner.getSnake());
+        }
+        b.setSnakePositions(snakes);
+
+        count = in.varint();
+        Map<String, String> directions = new HashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            directions.put(in.string(), in.direction());
+        }
+        b.setSnakeDirections(directions);
+
+        readTeams(in, b);
+        readFruits(in, b);
+        return b;
+    }
+
+    /**
+     * Datos generales del tablero: todo salvo jugadores, serpientes, equipos y frutas.
+     */
+    static void writeMeta(CodecWriter out, BoardState b) {
+        out.string(b.getRoomId());
+        out.varint(b.getWidth());
+        out.varint(b.getHeight());
+        out.string(b.getStatus());
+        out.string(b.getGameMode() != null ? b.getGameMode().name() : null);
+        out.zigzag(b.getTargetScore());
+        out.varlong(b.getTick());
+        out.varint(b.getTickRate());
+        out.fixed64(b.getSeed());
+        out.fixed64(b.getRngState());
+    }
+
+    static BoardState readMeta(CodecReader in) {
+        BoardState b = new BoardState();
+        b.setRoomId(in.string());
+        b.setWidth(in.varint());
+        b.setHeight(in.varint());
+        b.setStatus(in.string());
+        String mode = in.string();
+        b.setGameMode(mode != null ? GameMode.valueOf(mode) : null);
+        b.setTargetScore(in.zigzag());
+        b.setTick(in.varlong());
+        b.setTickRate(in.varint());
+        b.setSeed(in.fixed64());
+        b.setRngState(in.fixed64());
+        return b;
+    }
+
+    /**
+     * @param withBody false para omitir el cuerpo cuando ya se guarda aparte (serpiente viva)
+     */
+    static void writePlayer(CodecWriter out, Player p, int width, boolean withBody) {
+        out.string(p.getName());
+        out.string(p.getColor());
+        out.direction(p.getDirection());
+        out.zigzag(p.getScore());
+        out.zigzag(p.getMaxScore());
+        out.bool(p.isAlive());
+        writeBody(out, withBody ? p.getSnake() : null, width);
+    }
+
+    static Player readPlayer(CodecReader in, int width) {
+        Player p = new Player();
+        p.setName(in.string());
+        p.setColor(in.string());
+        p.setDirection(in.direction());
+        p.setScore(in.zigzag());
+        p.setMaxScore(in.zigzag());
+        p.setAlive(in.bool());
+        p.setSnake(readBody(in, width));
+        return p;
+    }
+
+    static void writeTeams(CodecWriter out, BoardState b) {
+        Map<String, Team> teams = nonNull(b.getTeams());
+        out.varint(teams.size());
+        for (Team t : teams.values()) {
+            out.string(t.getTeamId());
+            out.strings(t.getPlayerIds());
+            out.zigzag(t.getTeamScore());
+            out.bool(t.isEliminated());
+            out.string(t.getTeamColor());
+        }
+
+        Map<String, String> playerToTeam = nonNull(b.getPlayerToTeam());
+        out.varint(playerToTeam.size());
+        for (Map.Entry<String, String> e : playerToTeam.entrySet()) {
+            out.string(e.getKey());
+            out.string(e.getValue());
+        }
+    }
+
+    static void readTeams(CodecReader in, BoardState b) {
+        int count = in.varint();
+        Map<String, Team> teams = new HashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            Team t = new Team();
+            t.setTeamId(in.string());
+            t.setPlayerIds(in.strings());
+            t.setTeamScore(in.zigzag());
+            t.setEliminated(in.bool());
+            t.setTeamColor(in.string());
+            teams.put(t.getTeamId(), t);
+        }
+        b.setTeams(teams);
+
+        count = in.varint();
+        Map<String, String> playerToTeam = new HashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            playerToTeam.put(in.string(), in.string());
+        }
+        b.setPlayerToTeam(playerToTeam);
+    }
+
+    static void writeFruits(CodecWriter out, BoardState b) {
+        List<Point> fruits = b.getFruits() != null ? b.getFruits() : List.of();
+        out.varint(fruits.size());
+        for (Point f : fruits) {
+            out.zigzag(f.getX());
+            out.zigzag(f.getY());
+        }
+    }
+
+    static void readFruits(CodecReader in, BoardState b) {
+        int count = in.varint();
+        List<Point> fruits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            fruits.add(new Point(in.zigzag(), in.zigzag()));
+        }
+        b.setFruits(fruits);
+    }
+
+    /**
+     * Escribe el cuerpo con sus celdas recodificadas al ancho del tablero, que es
+     * como BoardState las indexa; -1 de largo indica un cuerpo nulo.
+     */
+    static void writeBody(CodecWriter out, SnakeBody body, int width) {
+        if (body == null) {
+            out.zigzag(-1);
+            return;
+        }
+        out.zigzag(body.size());
+        for (int i = 0; i < body.size(); i++) {
+            int c = body.get(i);
+            out.zigzag(body.y(c) * width + body.x(c));
+        }
+    }
+
+    static SnakeBody readBody(CodecReader in, int width) {
+        int size = in.zigzag();
+        if (size < 0) {
+            return null;
+        }
+        SnakeBody body = new SnakeBody(width, size);
+        for (int i = 0; i < size; i++) {
+            body.addLast(in.zigzag());
+        }
+        return body;
+    }
+
+    private void writeRoom(CodecWriter out, RoomDTO room) {
+        out.string(room.getRoomId());
+        out.string(room.getHost());
+        out.string(room.getGameMode() != null ? room.getGameMode().name() : null);
+        out.zigzag(room.getMaxPlayers());
+        out.strings(room.getCurrentPlayers());
+        out.bool(room.isFull());
+        out.zigzag(room.getTargetScore());
+        out.zigzag(room.getTickRate());
+    }
+
+    private RoomDTO readRoom(CodecReader in) {
+        RoomDTO room = new RoomDTO();
+        room.setRoomId(in.string());
+        room.setHost(in.string());
+        String mode = in.string();
+        room.setGameMode(mode != null ? GameMode.valueOf(mode) : null);
+        room.setMaxPlayers(in.zigzag());
+        room.setCurrentPlayers(in.strings());
+        room.setFull(in.bool());
+        room.setTargetScore(in.zigzag());
+        room.setTickRate(in.zigzag());
+        return room;
+    }
+
+    static <K, V> Map<K, V> nonNull(Map<K, V> map) {
+        return map != null ? map : Map.of();
+    }
+
+    static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -2,42 +2,281 @@ package com.serpentia.repository;
 
 
 import com.serpentia.model.BoardState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Partidas guardadas en Redis. Cada partida es un hash "board:{roomId}" con un campo
+ * por parte del tablero (ver {@link BoardHashCodec}), de modo que un tick solo
+ * reescribe los campos que cambiaron: los datos generales y las serpientes que se
+ * movieron, no los puntajes, equipos o frutas que siguen igual. Además se mantiene
+ * el set "games:active" con los IDs de las salas, para enumerarlas en O(partidas
+ * activas) sin recorrer todo el keyspace con KEYS.
+ *
+ * <p>Las partidas guardadas antes como un único valor en "game:{roomId}" se siguen
+ * leyendo; al guardarlas de nuevo pasan al hash y la clave anterior se borra.</p>
+ *
+ * <p>El bucle de juego usa {@link #getBoards} y {@link #saveBoards} para leer y
+ * escribir todas las salas de una pasada en un solo viaje de red cada uno.</p>
+ */
 @Repository
 public class GameRepository {
 
     private final RedisTemplate<String, Object> redis;
-    private static final String PREFIX = "game:";
+    private static final String PREFIX = "board:";
+    private static final String LEGACY_PREFIX = "game:";
+    private static final String ACTIVE = "games:active";
+    /**
+     * Guardado parcial: solo aplica los campos si el hash todavía existe. Si la sala se
+     * borró mientras se jugaba el tick, un HSET a ciegas recrearía un hash sin jugadores
+     * ni frutas y el SADD la volvería a registrar como activa.
+     */
+    private static final byte[] PARTIAL_WRITE = bytes("""
+            if redis.call('exists', KEYS[1]) == 0 then return 0 end
+            local n = tonumber(ARGV[2])
+            if n > 0 then redis.call('hset', KEYS[1], unpack(ARGV, 3, 2 + 2 * n)) end
+            if #ARGV > 2 + 2 * n then redis.call('hdel', KEYS[1], unpack(ARGV, 3 + 2 * n)) end
+            redis.call('sadd', KEYS[2], ARGV[1])
+            return 1
+            """);
+    private final Timer gets;
+    private final Timer sets;
+    private final Timer deletes;
+    private final Timer listings;
 
-    public GameRepository(RedisTemplate<String, Object> redis) {
+    public GameRepository(RedisTemplate<String, Object> redis, MeterRegistry registry) {
         this.redis = redis;
+        this.gets = RedisTimers.of(registry, "game", "get");
+        this.sets = RedisTimers.of(registry, "game", "set");
+        this.deletes = RedisTimers.of(registry, "game", "delete");
+        this.listings = RedisTimers.of(registry, "game", "list");
     }
 
     public void saveBoard(BoardState board) {
-        redis.opsForValue().set(PREFIX + board.getRoomId(), board);
+        saveBoards(List.of(board));
     }
 
     public BoardState getBoard(String roomId) {
-        Object obj = redis.opsForValue().get(PREFIX + roomId);
-        return obj != null ? (BoardState) obj : null;
+        return getBoards(List.of(roomId)).get(roomId);
     }
 
-    public Set<String> getAllGameKeys() {
-        return redis.keys(PREFIX + "*");
+    /**
+     * Lee varios tableros con un HGETALL por sala en un solo pipeline. Las salas que
+     * aún están en el formato anterior se leen después con un único MGET.
+     * @param roomIds IDs de las salas
+     * @return Tablero por sala; las salas sin partida guardada quedan con valor null
+     */
+    public Map<String, BoardState> getBoards(List<String> roomIds) {
+        return gets.record(() -> readBoards(roomIds));
+    }
+
+    private Map<String, BoardState> readBoards(List<String> roomIds) {
+        Map<String, BoardState> boards = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return boards;
+        }
+        List<Object> hashes = redis.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            for (String id : roomIds) {
+                connection.hashCommands().hGetAll(bytes(PREFIX + id));
+            }
+            return connection.closePipeline();
+        });
+        List<String> legacy = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            BoardState board = hashes != null ? decode(hashes.get(i)) : null;
+            if (board != null) {
+                boards.put(roomIds.get(i), board);
+            } else {
+                legacy.add(roomIds.get(i));
+            }
+        }
+        if (!legacy.isEmpty()) {
+            List<Object> values = redis.opsForValue().multiGet(legacy.stream().map(id -> LEGACY_PREFIX + id).toList());
+            for (int i = 0; i < legacy.size(); i++) {
+                Object obj = values != null ? values.get(i) : null;
+                boards.put(legacy.get(i), obj != null ? (BoardState) obj : null);
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * Guarda varios tableros en un solo pipeline. Un tablero nuevo o recargado se
+     * escribe entero (HSET, HDEL y SADD al registro de activas); uno ya guardado solo
+     * manda los campos que cambiaron, con un script que no hace nada si la sala se
+     * borró entretanto. Tras enviarlo, los tableros quedan sin cambios pendientes.
+     * @param boards Tableros a guardar
+     */
+    public void saveBoards(Collection<BoardState> boards) {
+        if (!boards.isEmpty()) {
+            sets.record(() -> writeBoards(boards));
+        }
+    }
+
+    private void writeBoards(Collection<BoardState> boards) {
+        RedisSerializer<Object> members = memberSerializer();
+        byte[] active = bytes(ACTIVE);
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.openPipeline();
+            List<byte[]> created = new ArrayList<>();
+            for (BoardState board : boards) {
+                byte[] key = bytes(PREFIX + board.getRoomId());
+                byte[] member = members.serialize(board.getRoomId());
+                Map<String, byte[]> set = new LinkedHashMap<>();
+                List<String> delete = new ArrayList<>();
+                BoardHashCodec.encodeChanges(board, set, delete);
+                if (!board.changes().isFull()) {
+                    connection.scriptingCommands().eval(PARTIAL_WRITE, ReturnType.INTEGER, 2,
+                            partialWriteArgs(key, active, member, set, delete));
+                    continue;
+                }
+                Map<byte[], byte[]> fields = new LinkedHashMap<>();
+                set.forEach((field, value) -> fields.put(bytes(field), value));
+                connection.hashCommands().hMSet(key, fields);
+                if (!delete.isEmpty()) {
+                    connection.hashCommands().hDel(key, delete.stream().map(GameRepository::bytes).toArray(byte[][]::new));
+                }
+                connection.keyCommands().del(bytes(LEGACY_PREFIX + board.getRoomId()));
+                created.add(member);
+            }
+            if (!created.isEmpty()) {
+                connection.setCommands().sAdd(active, created.toArray(byte[][]::new));
+            }
+            return connection.closePipeline();
+        });
+        boards.forEach(board -> board.changes().clear());
+    }
+
+    /**
+     * Claves y argumentos de {@link #PARTIAL_WRITE}: el hash y el registro de activas;
+     * luego la sala, el número de campos a escribir, los pares campo/valor y los
+     * campos a borrar.
+     */
+    private static byte[][] partialWriteArgs(byte[] key, byte[] active, byte[] member,
+                                             Map<String, byte[]> set, List<String> delete) {
+        List<byte[]> args = new ArrayList<>(4 + 2 * set.size() + delete.size());
+        args.add(key);
+        args.add(active);
+        args.add(member);
+        args.add(bytes(String.valueOf(set.size())));
+        set.forEach((field, value) -> {
+            args.add(bytes(field));
+            args.add(value);
+        });
+        delete.forEach(field -> args.add(bytes(field)));
+        return args.toArray(byte[][]::new);
+    }
+
+    /**
+     * @return IDs de las salas con partida guardada, según el registro de activas
+     */
+    public Set<String> getActiveRoomIds() {
+        Set<Object> members = listings.record(() -> redis.opsForSet().members(ACTIVE));
+        Set<String> ids = new HashSet<>();
+        if (members != null) {
+            members.forEach(m -> ids.add(String.valueOf(m)));
+        }
+        return ids;
     }
 
     public void deleteBoard(String roomId) {
-        redis.delete(PREFIX + roomId);
+        deletes.record(() -> {
+            redis.delete(List.of(PREFIX + roomId, LEGACY_PREFIX + roomId));
+            redis.opsForSet().remove(ACTIVE, roomId);
+        });
     }
+
     public void deleteAllGames(){
-        Set<String> keys = redis.keys(PREFIX + "*");
-        if (keys != null && !keys.isEmpty()) {
-            redis.delete(keys);
+        Set<String> keys = new HashSet<>();
+        getActiveRoomIds().forEach(id -> {
+            keys.add(PREFIX + id);
+            keys.add(LEGACY_PREFIX + id);
+        });
+        keys.addAll(scanGameKeys());
+        keys.add(ACTIVE);
+        redis.delete(keys);
+    }
+
+    /**
+     * Repara el registro de activas con un SCAN incremental (no bloquea Redis como KEYS):
+     * agrega partidas guardadas que falten y quita IDs cuya partida ya no existe.
+     * @return Número de entradas corregidas
+     */
+    public int repairActiveGames() {
+        Set<String> stored = new HashSet<>();
+        for (String key : scanGameKeys()) {
+            stored.add(key.substring(key.indexOf(':') + 1));
+        }
+        Set<String> registered = getActiveRoomIds();
+        int fixed = 0;
+        for (String id : stored) {
+            if (!registered.contains(id)) {
+                redis.opsForSet().add(ACTIVE, id);
+                fixed++;
+            }
+        }
+        for (String id : registered) {
+            if (!stored.contains(id) && !Boolean.TRUE.equals(redis.hasKey(PREFIX + id))
+                    && !Boolean.TRUE.equals(redis.hasKey(LEGACY_PREFIX + id))) {
+                redis.opsForSet().remove(ACTIVE, id);
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    /**
+     * @return Claves de partidas en ambos formatos ("board:*" y "game:*")
+     */
+    private Set<String> scanGameKeys() {
+        Set<String> keys = new HashSet<>();
+        for (String prefix : List.of(PREFIX, LEGACY_PREFIX)) {
+            try (Cursor<String> cursor = redis.scan(ScanOptions.scanOptions().match(prefix + "*").count(500).build())) {
+                cursor.forEachRemaining(keys::add);
+            }
         }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BoardState decode(Object hash) {
+        if (!(hash instanceof Map<?, ?> raw) || raw.isEmpty()) {
+            return null;
+        }
+        Map<String, byte[]> fields = new HashMap<>();
+        ((Map<byte[], byte[]>) raw).forEach((field, value) -> fields.put(new String(field, StandardCharsets.UTF_8), value));
+        return BoardHashCodec.decode(fields);
+    }
+
+    /**
+     * Los miembros de "games:active" se escriben con el serializador de valores del
+     * template, igual que en {@link #getActiveRoomIds()}.
+     */
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> memberSerializer() {
+        return (RedisSerializer<Object>) redis.getValueSerializer();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
     }
 
-}
\ No newline at end of file
+}
@@ -1,52 +1,138 @@
 package com.serpentia.repository;
 
 import com.serpentia.dto.RoomDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
+/**
+ * Salas del lobby en Redis. El set "rooms:active" registra los IDs de las salas
+ * guardadas para listarlas sin usar KEYS sobre todo el keyspace.
+ */
 @Repository
 public class LobbyRepository {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private static final String ROOM_KEY_PREFIX = "room:";
+    private static final String ACTIVE = "rooms:active";
+    private final Timer gets;
+    private final Timer sets;
+    private final Timer deletes;
+    private final Timer listings;
 
-    public LobbyRepository(RedisTemplate<String, Object> redisTemplate) {
+    public LobbyRepository(RedisTemplate<String, Object> redisTemplate, MeterRegistry registry) {
         this.redisTemplate = redisTemplate;
+        this.gets = RedisTimers.of(registry, "lobby", "get");
+        this.sets = RedisTimers.of(registry, "lobby", "set");
+        this.deletes = RedisTimers.of(registry, "lobby", "delete");
+        this.listings = RedisTimers.of(registry, "lobby", "list");
     }
 
     public void saveRoom(RoomDTO room) {
-        redisTemplate.opsForValue().set(ROOM_KEY_PREFIX + room.getRoomId(), room);
+        sets.record(() -> {
+            redisTemplate.opsForValue().set(ROOM_KEY_PREFIX + room.getRoomId(), room);
+            redisTemplate.opsForSet().add(ACTIVE, room.getRoomId());
+        });
     }
 
     public RoomDTO getRoom(String roomId) {
-        Object roomObj = redisTemplate.opsForValue().get(ROOM_KEY_PREFIX + roomId);
+        Object roomObj = gets.record(() -> redisTemplate.opsForValue().get(ROOM_KEY_PREFIX + roomId));
         return roomObj != null ? (RoomDTO) roomObj : null;
     }
 
+    /**
+     * @return Salas registradas en rooms:active
+     */
+    public long countRooms() {
+        Long size = listings.record(() -> redisTemplate.opsForSet().size(ACTIVE));
+        return size != null ? size : 0;
+    }
+
     public List<RoomDTO> getAllRooms() {
-        Set<String> keys = redisTemplate.keys(ROOM_KEY_PREFIX + "*");
-        if (keys == null) return new ArrayList<>();
-        return keys.stream()
-                .map(k -> (RoomDTO) redisTemplate.opsForValue().get(k))
+        return listings.record(this::readAllRooms);
+    }
+
+    private List<RoomDTO> readAllRooms() {
+        List<String> keys = activeRoomIds().stream().map(id -> ROOM_KEY_PREFIX + id).toList();
+        if (keys.isEmpty()) return new ArrayList<>();
+        List<Object> rooms = redisTemplate.opsForValue().multiGet(keys);
+        if (rooms == null) return new ArrayList<>();
+        return rooms.stream()
                 .filter(Objects::nonNull)
+                .map(RoomDTO.class::cast)
                 .toList();
     }
 
     public void deleteRoom(String roomId) {
-        redisTemplate.delete(ROOM_KEY_PREFIX + roomId);
+        deletes.record(() -> {
+            redisTemplate.delete(ROOM_KEY_PREFIX + roomId);
+            redisTemplate.opsForSet().remove(ACTIVE, roomId);
+        });
     }
 
     public boolean deleteAllRooms() {
-        Set<String> keys = redisTemplate.keys(ROOM_KEY_PREFIX + "*");
-        if (keys != null && !keys.isEmpty()) {
+        Set<String> keys = new HashSet<>();
+        activeRoomIds().forEach(id -> keys.add(ROOM_KEY_PREFIX + id));
+        keys.addAll(scanRoomKeys());
+        redisTemplate.delete(ACTIVE);
+        if (!keys.isEmpty()) {
             redisTemplate.delete(keys);
             return true;
         }
         return false;
     }
+
+    /**
+     * Repara el registro de salas activas con un SCAN incremental: agrega salas
+     * guardadas que falten y quita IDs cuya sala ya no existe.
+     * @return Número de entradas corregidas
+     */
+    public int repairActiveRooms() {
+        Set<String> stored = new HashSet<>();
+        for (String key : scanRoomKeys()) {
+            stored.add(key.substring(ROOM_KEY_PREFIX.length()));
+        }
+        Set<String> registered = activeRoomIds();
+        int fixed = 0;
+        for (String id : stored) {
+            if (!registered.contains(id)) {
+                redisTemplate.opsForSet().add(ACTIVE, id);
+                fixed++;
+            }
+        }
+        for (String id : registered) {
+            if (!stored.contains(id) && !Boolean.TRUE.equals(redisTemplate.hasKey(ROOM_KEY_PREFIX + id))) {
+                redisTemplate.opsForSet().remove(ACTIVE, id);
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private Set<String> activeRoomIds() {
+        Set<Object> members = redisTemplate.opsForSet().members(ACTIVE);
+        Set<String> ids = new HashSet<>();
+        if (members != null) {
+            members.forEach(m -> ids.add(String.valueOf(m)));
+        }
+        return ids;
+    }
+
+    private Set<String> scanRoomKeys() {
+        Set<String> keys = new HashSet<>();
+        try (Cursor<String> cursor = redisTemplate.scan(
+                ScanOptions.scanOptions().match(ROOM_KEY_PREFIX + "*").count(500).build())) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
 }
@@ -0,0 +1,23 @@
+package com.serpentia.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Temporizadores "serpentia.redis.command" de los repositorios, etiquetados con el
+ * repositorio y la operación. Miden el viaje completo a Redis, incluida la
+ * serialización de los valores.
+ */
+final class RedisTimers {
+
+    private RedisTimers() {
+    }
+
+    static Timer of(MeterRegistry registry, String repository, String operation) {
+        return Timer.builder("serpentia.redis.command")
+                .description("Latencia de las operaciones de los repositorios en Redis")
+                .tag("repository", repository)
+                .tag("op", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.serpentia.service;
+
+import com.serpentia.repository.GameRepository;
+import com.serpentia.repository.LobbyRepository;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repara periódicamente los registros de partidas y salas activas ("games:active",
+ * "rooms:active"). Los registros se mantienen al guardar y borrar, pero una caída
+ * entre ambas escrituras puede dejarlos desfasados; este job los corrige con SCAN.
+ * Corre en un solo nodo a la vez gracias a ShedLock.
+ */
+@Component
+public class ActiveRegistryRepairJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveRegistryRepairJob.class);
+    private final GameRepository gameRepository;
+    private final LobbyRepository lobbyRepository;
+
+    public ActiveRegistryRepairJob(GameRepository gameRepository, LobbyRepository lobbyRepository) {
+        this.gameRepository = gameRepository;
+        this.lobbyRepository = lobbyRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${serpentia.redis.registry-repair-ms:60000}")
+    @SchedulerLock(name = "activeRegistryRepair", lockAtMostFor = "5m")
+    public void repair() {
+        int games = gameRepository.repairActiveGames();
+        int rooms = lobbyRepository.repairActiveRooms();
+        if (games > 0 || rooms > 0) {
+            logger.warn("Registros activos reparados: {} partidas, {} salas", games, rooms);
+        }
+    }
+}
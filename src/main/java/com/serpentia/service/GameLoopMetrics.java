@@ -0,0 +1,91 @@
+package com.serpentia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas del bucle de juego. Comparar el tiempo real de una pasada del bucle con
+ * la suma de los tiempos de sus salas muestra cuánto aporta la ejecución en paralelo.
+ * El tiempo de cada sala se registra además por sala en {@link RoomMetrics}, y su
+ * promedio móvil alimenta el modelo de capacidad de {@link RoomAdmission}.
+ */
+@Component
+public class GameLoopMetrics {
+
+    private static final double SMOOTHING = 0.1;
+
+    private final Timer roomTick;
+    private final Timer loopWall;
+    private final Timer loopRoomSum;
+    private final DistributionSummary roomsPerLoop;
+    private final Counter roomsBusy;
+    private final Counter ticksSkipped;
+    private final RoomMetrics roomMetrics;
+    private volatile double averageRoomTick;
+
+    public GameLoopMetrics(MeterRegistry registry, RoomMetrics roomMetrics) {
+        this.roomMetrics = roomMetrics;
+        this.roomTick = Timer.builder("serpentia.game.room.tick")
+                .description("Duración del tick de una sala")
+                .register(registry);
+        this.loopWall = Timer.builder("serpentia.game.loop.wall")
+                .description("Tiempo real desde que se despachan las salas hasta que termina la última")
+                .register(registry);
+        this.loopRoomSum = Timer.builder("serpentia.game.loop.room.sum")
+                .description("Suma de los tiempos de tick de las salas de una pasada")
+                .register(registry);
+        this.roomsPerLoop = DistributionSummary.builder("serpentia.game.loop.rooms")
+                .description("Salas avanzadas por pasada del bucle")
+                .register(registry);
+        this.roomsBusy = Counter.builder("serpentia.game.loop.busy")
+                .description("Salas omitidas porque su tick anterior seguía en curso")
+                .register(registry);
+        this.ticksSkipped = Counter.builder("serpentia.game.ticks.skipped")
+                .description("Ticks descartados por salas que se atrasaron más de lo recuperable")
+                .register(registry);
+    }
+
+    /**
+     * @param roomId Sala avanzada, o null si no llegó a avanzar (sin lease o sin partida)
+     * @param nanos Duración de la tarea de la sala
+     */
+    public void recordRoomTick(String roomId, long nanos) {
+        roomTick.record(nanos, TimeUnit.NANOSECONDS);
+        if (roomId != null) {
+            roomMetrics.recordTick(roomId, nanos);
+        }
+    }
+
+    public void recordLoop(long wallNanos, long roomSumNanos, int rooms) {
+        loopWall.record(wallNanos, TimeUnit.NANOSECONDS);
+        loopRoomSum.record(roomSumNanos, TimeUnit.NANOSECONDS);
+        roomsPerLoop.record(rooms);
+        if (rooms > 0) {
+            updateAverage((double) roomSumNanos / rooms);
+        }
+    }
+
+    /**
+     * @return Promedio móvil del costo de un tick de sala en nanosegundos; 0 sin mediciones
+     */
+    public double averageRoomTickNanos() {
+        return averageRoomTick;
+    }
+
+    private synchronized void updateAverage(double sample) {
+        averageRoomTick = averageRoomTick == 0 ? sample : averageRoomTick + SMOOTHING * (sample - averageRoomTick);
+    }
+
+    public void recordBusy() {
+        roomsBusy.increment();
+    }
+
+    public void recordSkippedTicks(int ticks) {
+        ticksSkipped.increment(ticks);
+    }
+}
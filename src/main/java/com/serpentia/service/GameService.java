@@ -4,33 +4,75 @@ package com.serpentia.service;
 import com.serpentia.model.BoardState;
 import com.serpentia.model.Point;
 import com.serpentia.model.Player;
-import com.serpentia.repository.GameRepository;
+import com.serpentia.model.SnakeBody;
+import com.serpentia.websocket.GameBroadcaster;
 import com.serpentia.websocket.GameEvent;
-import com.serpentia.websocket.ScoreEvent;
-import com.serpentia.dto.PlayerDTO;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.serpentia.websocket.SpectatorFeed;
+import com.serpentia.websocket.TickFrame;
+import com.serpentia.dto.GameStateDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.context.ApplicationEventPublisher;
-import com.serpentia.websocket.PlayerEliminatedEvent;
 import com.serpentia.websocket.GameFinishedEvent;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import com.serpentia.enums.GameMode;
 
 @Service
 public class GameService {
 
-    private final GameRepository gameRepository;
-    private final SimpMessagingTemplate ws;
+    private static final Logger logger = LoggerFactory.getLogger(GameService.class);
+    private final GameStateStore stateStore;
+    private final RoomLeaseService roomLeases;
+    private final GameBroadcaster broadcaster;
     private final ApplicationEventPublisher eventPublisher;
-    private static final String topic = "/topic/game/";
+    private final Executor tickExecutor;
+    private final GameLoopMetrics loopMetrics;
+    private final TickRatePolicy tickRates;
+    private final RoomInputBuffer inputBuffer;
+    private final LoadShedder shedder;
+    private final SpectatorFeed spectators;
+    private final int keyframeInterval;
+    private final int saveBatchSize;
+    private final Set<String> roomsInFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, RoomClock> roomClocks = new ConcurrentHashMap<>();
+    private Set<String> knownRooms = Set.of();
+    private long nextDiscoveryAt;
+    private boolean discovered;
     private static final String game = "IN_GAME";
-
-    public GameService(GameRepository gameRepository, SimpMessagingTemplate ws, ApplicationEventPublisher eventPublisher) {
-        this.gameRepository = gameRepository;
-        this.ws = ws;
+    private static final long DISCOVERY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    public GameService(GameStateStore stateStore, RoomLeaseService roomLeases, GameBroadcaster broadcaster,
+                       ApplicationEventPublisher eventPublisher,
+                       @Qualifier("gameTickExecutor") Executor tickExecutor, GameLoopMetrics loopMetrics,
+                       TickRatePolicy tickRates, RoomInputBuffer inputBuffer, LoadShedder shedder,
+                       SpectatorFeed spectators,
+                       @Value("${serpentia.game.keyframe-interval:20}") int keyframeInterval,
+                       @Value("${serpentia.game.save-batch-size:16}") int saveBatchSize) {
+        this.stateStore = stateStore;
+        this.roomLeases = roomLeases;
+        this.broadcaster = broadcaster;
         this.eventPublisher = eventPublisher;
+        this.tickExecutor = tickExecutor;
+        this.loopMetrics = loopMetrics;
+        this.tickRates = tickRates;
+        this.inputBuffer = inputBuffer;
+        this.shedder = shedder;
+        this.spectators = spectators;
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.saveBatchSize = Math.max(1, saveBatchSize);
     }
 
     private String assignPlayerColor(int playerIndex) {
@@ -38,12 +80,21 @@ public class GameService {
         return teamColors[playerIndex % teamColors.length];
     }
 
-    public void initRoom(String roomId, List<String> players, GameMode gameMode, int targetScore) {
+    /**
+     * Crea el tablero de una sala y la reclama para este nodo. Si otro nodo ya tiene el
+     * lease, la partida ya corre allí: no se guarda ni se anuncia otro tablero encima.
+     */
+    public void initRoom(String roomId, List<String> players, GameMode gameMode, int targetScore, int tickRate) {
+        if (!roomLeases.acquire(roomId)) {
+            logger.warn("Sala {} no se inicia: su lease pertenece a otro nodo", roomId);
+            return;
+        }
         BoardState board = new BoardState();
         board.setRoomId(roomId);
         board.setStatus(game);
         board.setGameMode(gameMode);
         board.setTargetScore(targetScore);
+        board.setTickRate(tickRates.rateFor(gameMode, tickRate));
         for (int i = 0; i < players.size(); i++) {
             String playerId = players.get(i);
             String color = assignPlayerColor(i);
@@ -52,135 +103,388 @@ public class GameService {
         }
         board.assignTeamsAutomatically();
         for (int i = 0; i < 5; i++) board.spawnFruit();
-        gameRepository.saveBoard(board);
+        stateStore.start(board);
+        logger.debug("Sala {} inicia con semilla {}", roomId, board.getSeed());
         GameEvent event = new GameEvent("START", null, board);
-        ws.convertAndSend(topic + roomId, event);
-        eventPublisher.publishEvent(event);
+        broadcaster.broadcast(roomId, event);
 
     }
 
+    /**
+     * Carga de las salas propias según la frecuencia de cada una; las que aún no tienen
+     * reloj cuentan a la frecuencia por defecto.
+     * @return Ticks por segundo que suman las salas con lease en este nodo
+     */
+    public double ownedTicksPerSecond() {
+        double total = 0;
+        for (String roomId : roomLeases.ownedRooms()) {
+            RoomClock clock = roomClocks.get(roomId);
+            long period = clock != null ? clock.periodNanos() : tickRates.defaultPeriodNanos();
+            total += (double) TimeUnit.SECONDS.toNanos(1) / period;
+        }
+        return total;
+    }
+
+    /**
+     * Encola un cambio de dirección; se aplica al inicio del siguiente tick de la sala.
+     * @param roomId ID de la sala
+     * @param player Jugador que se mueve
+     * @param dir Nueva dirección
+     */
     public void setDirection(String roomId, String player, String dir) {
-        BoardState board = gameRepository.getBoard(roomId);
-        if (board != null && game.equals(board.getStatus())) {
-            board.reconstructPlayersIfNeeded();
-            board.getSnakeDirections().put(player, dir);
-            Player p = board.getPlayers().get(player);
-            if (p != null) {
-                p.setDirection(dir);
-            }
-            gameRepository.saveBoard(board);
+        inputBuffer.submit(roomId, player, dir);
+    }
+
+    /**
+     * Aplica los movimientos acumulados desde el tick anterior (el último por jugador).
+     */
+    private void applyInputs(BoardState b) {
+        for (Map.Entry<String, String> move : inputBuffer.drain(b.getRoomId()).entrySet()) {
+            b.setPlayerDirection(move.getKey(), move.getValue());
         }
     }
 
-    @Scheduled(fixedRate = 200)
-    @SchedulerLock(name = "gameLoopLock", lockAtLeastFor = "200ms", lockAtMostFor = "500ms")
+    /**
+     * Avanza las partidas cuyo lease pertenece a este nodo. Cada pasada recorre solo
+     * las salas propias y renueva sus leases; las que no tienen dueño o cuyo lease
+     * expiró se reclaman en lote al descubrir salas, no en cada pasada.
+     *
+     * <p>El bucle corre con una resolución fina y cada sala lleva su propio reloj de
+     * paso fijo, de modo que salas a distinta frecuencia conviven sin que una sala
+     * rápida imponga su costo a las demás. Las salas con ticks vencidos se despachan
+     * como tareas independientes en el pool de ticks, así que una sala lenta (o una
+     * llamada lenta a Redis) no retrasa a las demás. Una sala solo tiene un tick en
+     * curso a la vez: si el anterior no terminó, se omite en esta pasada y recupera
+     * los ticks atrasados en la siguiente.</p>
+     *
+     * <p>El hilo del scheduler solo elige las salas vencidas: una tarea del pool lee
+     * juntos los tableros de las salas propias y despacha una tarea por sala. Los
+     * tableros que hay que guardar se escriben en pipelines de save-batch-size a medida
+     * que sus salas terminan (el último lote, con la última sala de la pasada). Una sala
+     * deja de estar "en curso" al terminar su tarea o, si guarda, al escribirse su lote,
+     * así la siguiente lectura nunca ve un tablero anterior y una sala lenta no retiene
+     * a las demás.</p>
+     *
+     * <p>El tiempo de cada pasada, comparado con el periodo de sus salas, alimenta a
+     * {@link LoadShedder}, que recorta keyframes, eventos y partidas nuevas antes de
+     * que las partidas en curso pierdan ticks.</p>
+     */
+    @Scheduled(fixedRateString = "${serpentia.game.scheduler-resolution-ms:10}")
     public void gameLoop() {
-        Set<String> keys = gameRepository.getAllGameKeys();
-        if (keys == null) return;
+        gameLoop(System.nanoTime());
+    }
+
+    void gameLoop(long now) {
+        if (!discovered || now - nextDiscoveryAt >= 0) {
+            knownRooms = stateStore.storedRoomIds();
+            nextDiscoveryAt = now + DISCOVERY_INTERVAL_NANOS;
+            discovered = true;
+            claimFreeRooms(now);
+        }
+        Set<String> rooms = roomLeases.ownedRooms();
+        roomClocks.keySet().retainAll(rooms);
+
+        Map<String, Integer> due = new HashMap<>();
+        Map<String, RoomClock> clocks = new HashMap<>();
+        long budget = Long.MAX_VALUE;
+        boolean overrun = false;
+        for (String roomId : rooms) {
+            RoomClock clock = roomClocks.computeIfAbsent(roomId, id -> new RoomClock(tickRates.defaultPeriodNanos(), now));
+            if (!clock.isDue(now)) {
+                continue;
+            }
+            budget = Math.min(budget, clock.periodNanos());
+            if (!roomsInFlight.add(roomId)) {
+                loopMetrics.recordBusy();
+                overrun = true;
+                continue;
+            }
+            due.put(roomId, clock.advance(now, tickRates.maxCatchUp()));
+            clocks.put(roomId, clock);
+            if (clock.lastSkipped() > 0) {
+                overrun = true;
+                loopMetrics.recordSkippedTicks(clock.lastSkipped());
+                logger.warn("Sala {} atrasada: se descartan {} ticks", roomId, clock.lastSkipped());
+            }
+        }
+        if (due.isEmpty()) {
+            if (overrun) {
+                // Todas las salas vencidas siguen en curso: la pasada no avanza nada pero es un desborde
+                shedder.recordPass(0, budget, true, now);
+            }
+            return;
+        }
+
+        Pass pass = new Pass(due.size(), budget, overrun);
+        try {
+            tickExecutor.execute(() -> dispatch(pass, due, clocks));
+        } catch (RejectedExecutionException e) {
+            roomsInFlight.removeAll(due.keySet());
+            logger.warn("Pool de ticks no disponible, se omiten {} salas", due.size());
+        }
+    }
+
+    /**
+     * Reclama las salas guardadas que no son de este nodo. Corre solo al descubrir salas
+     * y fuera de las pasadas, así los intentos sobre salas de otros nodos no se suman al
+     * tiempo de sala ni a la carga que mide {@link LoadShedder}.
+     */
+    private void claimFreeRooms(long now) {
+        Set<String> free = new HashSet<>(knownRooms);
+        free.removeAll(roomLeases.ownedRooms());
+        try {
+            roomLeases.claim(free, now);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron reclamar las salas libres", e);
+        }
+    }
+
+    /**
+     * Renueva los leases y lee los tableros de la pasada, un pipeline para cada cosa, y
+     * despacha una tarea por sala. Corre en el pool de ticks para que Redis no frene al
+     * hilo del scheduler. Si la renovación falla, la pasada no avanza ninguna sala (sin
+     * soltarlas) y se reintenta en la siguiente.
+     */
+    private void dispatch(Pass pass, Map<String, Integer> due, Map<String, RoomClock> clocks) {
+        Set<String> leased;
+        try {
+            leased = roomLeases.renewAll(due.keySet());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron renovar los leases de la pasada", e);
+            due.keySet().forEach(roomId -> pass.roomDone(roomId, false));
+            return;
+        }
+        Map<String, BoardState> prefetched = prefetch(leased);
+        for (Map.Entry<String, Integer> entry : due.entrySet()) {
+            String roomId = entry.getKey();
+            RoomClock clock = clocks.get(roomId);
+            boolean owned = leased.contains(roomId);
+            try {
+                CompletableFuture.supplyAsync(
+                                () -> runRoom(roomId, owned, clock, entry.getValue(), prefetched, pass), tickExecutor)
+                        .whenComplete((saving, ex) -> {
+                            if (ex != null) {
+                                logger.error("Error avanzando la sala {}", roomId, ex);
+                            }
+                            pass.roomDone(roomId, Boolean.TRUE.equals(saving));
+                        });
+            } catch (RejectedExecutionException e) {
+                logger.warn("Pool de ticks no disponible, se omite la sala {}", roomId);
+                pass.roomDone(roomId, false);
+            }
+        }
+    }
+
+    /**
+     * Estado compartido por las tareas de una pasada del bucle.
+     */
+    private final class Pass {
+
+        private final long started = System.nanoTime();
+        private final int rooms;
+        private final long budget;
+        private final boolean overrun;
+        private final AtomicInteger remaining;
+        private final LongAdder roomNanos = new LongAdder();
+        private final Queue<BoardState> dirty = new ConcurrentLinkedQueue<>();
+
+        private Pass(int rooms, long budget, boolean overrun) {
+            this.rooms = rooms;
+            this.budget = budget;
+            this.overrun = overrun;
+            this.remaining = new AtomicInteger(rooms);
+        }
+
+        /**
+         * Cierra la sala en la pasada: sin nada que guardar deja de estar en curso enseguida;
+         * si guarda, lo hace cuando se junta un lote o con la última sala de la pasada.
+         * @param saving true si la sala dejó su tablero en la cola de guardado
+         */
+        void roomDone(String roomId, boolean saving) {
+            if (!saving) {
+                roomsInFlight.remove(roomId);
+            }
+            boolean last = remaining.decrementAndGet() == 0;
+            if (last || dirty.size() >= saveBatchSize) {
+                flush();
+            }
+            if (last) {
+                long finished = System.nanoTime();
+                loopMetrics.recordLoop(finished - started, roomNanos.sum(), rooms);
+                shedder.recordPass(finished - started, budget, overrun, finished);
+            }
+        }
 
-        for (String key : keys) {
-            String roomId = key.replace("game:", "");
-            BoardState board = gameRepository.getBoard(roomId);
-            if (board == null || !game.equals(board.getStatus())) continue;
+        private void flush() {
+            List<BoardState> batch = new ArrayList<>();
+            for (BoardState board = dirty.poll(); board != null; board = dirty.poll()) {
+                batch.add(board);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                stateStore.saveAll(batch);
+            } catch (RuntimeException e) {
+                logger.error("No se pudieron guardar {} tableros de la pasada", batch.size(), e);
+            } finally {
+                batch.forEach(board -> roomsInFlight.remove(board.getRoomId()));
+            }
+        }
+    }
 
+    /**
+     * Lee de una vez los tableros de las salas vencidas cuyo lease se renovó. Si la
+     * lectura falla, cada tarea lee su tablero por separado.
+     */
+    private Map<String, BoardState> prefetch(Collection<String> leased) {
+        if (leased.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return stateStore.loadForTicks(List.copyOf(leased));
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron leer los tableros de la pasada, se leerán por sala", e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * @return true si el tablero quedó en la cola de guardado de la pasada
+     */
+    private boolean runRoom(String roomId, boolean owned, RoomClock clock, int dueTicks,
+                            Map<String, BoardState> prefetched, Pass pass) {
+        long start = System.nanoTime();
+        String ticked = null;
+        try {
+            if (!owned) {
+                stateStore.evict(roomId);
+                inputBuffer.discard(roomId);
+                return false;
+            }
+            BoardState board = prefetched.containsKey(roomId)
+                    ? prefetched.get(roomId)
+                    : stateStore.loadForTick(roomId);
+            if (board == null || !game.equals(board.getStatus())) {
+                roomLeases.release(roomId);
+                stateStore.evict(roomId);
+                inputBuffer.discard(roomId);
+                return false;
+            }
+            clock.setPeriod(tickRates.periodNanos(board));
+            ticked = roomId;
+            boolean save = false;
+            for (int i = 0; i < dueTicks && game.equals(board.getStatus()); i++) {
+                save |= tick(board);
+            }
+            if (save && game.equals(board.getStatus())) {
+                pass.dirty.add(board);
+                return true;
+            }
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            pass.roomNanos.add(elapsed);
+            loopMetrics.recordRoomTick(ticked, elapsed);
+        }
+    }
+
+    /**
+     * @return true si el tablero debe guardarse en un lote de la pasada
+     */
+    private boolean tick(BoardState board) {
+        synchronized (board) {
             if (board.getPlayers().isEmpty() && !board.getSnakePositions().isEmpty()) {
                 board.reconstructPlayersIfNeeded();
             }
-            updateBoard(board);
-            gameRepository.saveBoard(board);
-            GameEvent event = new GameEvent("UPDATE", null, board);
-            ws.convertAndSend(topic + roomId, event);
-            eventPublisher.publishEvent(event);
+            board.setTick(board.getTick() + 1);
+            boolean transition = updateBoard(board);
+            if (game.equals(board.getStatus())) {
+                return stateStore.afterTick(board, transition);
+            }
+            roomLeases.release(board.getRoomId());
+            return false;
         }
     }
 
-    private void updateBoard(BoardState b) {
-        Map<String, Deque<Point>> snakes = b.getSnakePositions();
+    /**
+     * Guarda las partidas vivas y libera sus leases para que otro nodo las retome de inmediato.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stateStore.flush();
+        roomLeases.releaseAll();
+    }
+
+    /**
+     * Avanza un tick del tablero y envía su resultado en un único TickFrame. Los
+     * espectadores reciben aparte una foto cada tanto ({@link SpectatorFeed}).
+     * @return true si hubo una transición de estado (eliminación o fin de partida)
+     */
+    private boolean updateBoard(BoardState b) {
+        applyInputs(b);
+        TickFrame frame = new TickFrame(b.getRoomId(), b.getTick());
+        Map<String, SnakeBody> snakes = b.getSnakePositions();
         Map<String, String> dirs = b.getSnakeDirections();
-        Set<String> eliminated = new HashSet<>();
-        Set<String> ateFruit = new HashSet<>();
-
-        Map<String, Point> newHeads = new HashMap<>();
-        for (String p : snakes.keySet()) {
-            Deque<Point> body = snakes.get(p);
-            Point head = body.peekFirst();
-            String dir = dirs.get(p);
-            Point nh = switch (dir) {
-                case "UP"    -> new Point(head.getX(), head.getY() - 1);
-                case "DOWN"  -> new Point(head.getX(), head.getY() + 1);
-                case "LEFT"  -> new Point(head.getX() - 1, head.getY());
-                case "RIGHT" -> new Point(head.getX() + 1, head.getY());
-                default       -> head;
-            };
-            newHeads.put(p, nh);
-        }
-
-        for (Map.Entry<String, Point> e : newHeads.entrySet()) {
-            String p = e.getKey();
-            Point nh = e.getValue();
-            if (nh.getX() < 0 || nh.getX() >= b.getWidth() || nh.getY() < 0 || nh.getY() >= b.getHeight()) {
-                eliminated.add(p);
-                PlayerEliminatedEvent event = new PlayerEliminatedEvent(p, b.getRoomId(), b.getPlayerScore(p), b.getAlivePlayerCount() + 1);
-
-                GameEvent gameEvent = new GameEvent("COLLISION", p, b);
-                ws.convertAndSend(topic + b.getRoomId(), gameEvent);
-                eventPublisher.publishEvent(gameEvent);
-                continue;
-            }
-            for (Deque<Point> other : snakes.values()) {
-                if (other.contains(nh)) {
-                    eliminated.add(p);
-                    PlayerEliminatedEvent event = new PlayerEliminatedEvent(p, b.getRoomId(), b.getPlayerScore(p), b.getAlivePlayerCount() + 1);
 
-                    GameEvent gameEvent = new GameEvent("COLLISION", p, b);
-                    ws.convertAndSend(topic + b.getRoomId(), gameEvent);
-                    eventPublisher.publishEvent(gameEvent);
-                    break;
-                }
+        // Cabezas nuevas como celdas empaquetadas (-1 = fuera del tablero), sin crear Points por tick
+        String[] ids = snakes.keySet().toArray(new String[0]);
+        int[] newHeads = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            newHeads[i] = b.nextCell(snakes.get(ids[i]).peekFirst(), dirs.get(ids[i]));
+        }
+
+        // Todas las colisiones se evalúan contra el tablero previo al movimiento
+        boolean[] eliminated = new boolean[ids.length];
+        boolean transition = false;
+        for (int i = 0; i < ids.length; i++) {
+            if (newHeads[i] < 0 || b.isOccupied(newHeads[i])) {
+                eliminated[i] = true;
+                transition = true;
+                frame.addEvent("COLLISION", ids[i]);
             }
         }
 
-        for (String p : newHeads.keySet()) {
-            if (eliminated.contains(p)) {
+        for (int i = 0; i < ids.length; i++) {
+            String p = ids[i];
+            if (eliminated[i]) {
                 b.eliminatePlayer(p);
+                frame.getEliminated().add(p);
                 continue;
             }
 
-            Deque<Point> body = snakes.get(p);
-            Point nh = newHeads.get(p);
-            body.addFirst(nh);
+            int nh = newHeads[i];
+            b.pushHead(p, nh);
+            Point head = snakes.get(p).toPoint(nh);
+            frame.getHeads().put(p, head);
 
-            if (b.getFruits().remove(nh)) {
-                b.spawnFruit();
-                ateFruit.add(p);
+            if (b.removeFruit(nh)) {
+                frame.getFruitsRemoved().add(head);
+                if (b.spawnFruit()) {
+                    frame.getFruitsAdded().add(b.getFruits().get(b.getFruits().size() - 1));
+                }
                 b.addScoreToPlayer(p, 10);
+                frame.getScores().put(p, b.getPlayerScore(p));
 
                 if (b.getGameMode() == GameMode.TEAM) {
                     String teamId = b.getPlayerTeam(p);
-                    if (teamId != null && b.getTeams().containsKey(teamId)) {
-                        b.getTeams().get(teamId).addScore(10);
+                    int teamScore = b.addScoreToTeam(teamId, 10);
+                    if (teamScore >= 0) {
+                        frame.getTeamScores().put(teamId, teamScore);
                     }
                 }
-
-                GameEvent fruitEvent = new GameEvent("FRUIT", p, b);
-                ws.convertAndSend(topic + b.getRoomId(), fruitEvent);
-                eventPublisher.publishEvent(fruitEvent);
-
-                List<PlayerDTO> playerDTOs = b.getPlayers().values().stream().map(PlayerDTO::new).toList();
-                ScoreEvent scoreEvent = new ScoreEvent("SCORE_UPDATE", playerDTOs, b.getRoomId());
-                ws.convertAndSend(topic + b.getRoomId(), scoreEvent);
-                eventPublisher.publishEvent(scoreEvent);
+                if (shedder.keepEvent("FRUIT")) {
+                    frame.addEvent("FRUIT", p);
+                }
             } else {
-                body.pollLast();
+                b.popTail(p);
+                frame.getTails().add(p);
             }
         }
 
-        GameEvent updateEvent = new GameEvent("UPDATE", null, b);
-        ws.convertAndSend(topic + b.getRoomId(), updateEvent);
-        eventPublisher.publishEvent(updateEvent);
-
-
-        if (b.isGameFinished()) {
+        boolean finished = b.isGameFinished();
+        GameFinishedEvent finishedEvent = null;
+        if (finished) {
             b.setStatus("FINISHED");
             List<GameFinishedEvent.PlayerResult> results = b.getPlayers().values().stream()
                     .map(player -> new GameFinishedEvent.PlayerResult(
@@ -189,23 +493,51 @@ public class GameService {
                             calculatePosition(player, b),
                             isPlayerWinner(player, b)))
                     .toList();
-            GameFinishedEvent finishedEvent = new GameFinishedEvent(b.getRoomId(), results);
+            finishedEvent = new GameFinishedEvent(b.getRoomId(), results);
             eventPublisher.publishEvent(finishedEvent);
+            frame.addEvent("END", null);
+        }
 
-            GameEvent endEvent = new GameEvent("END", null, b);
-            ws.convertAndSend(topic + b.getRoomId(), endEvent);
-            eventPublisher.publishEvent(endEvent);
-
-            gameRepository.deleteBoard(b.getRoomId());
+        frame.setStatus(b.getStatus());
+        frame.setSentAt(System.currentTimeMillis());
+        if (finished || shedder.sendKeyframe(b.getTick(), keyframeInterval)) {
+            frame.setBoard(b);
+        }
+        broadcaster.broadcast(b.getRoomId(), frame);
+        spectators.offer(b, tickRates.periodNanos(b), finished);
+
+        if (finished) {
+            broadcaster.broadcast(b.getRoomId(), finishedEvent);
+            stateStore.finish(b.getRoomId());
+            inputBuffer.discard(b.getRoomId());
+            return true;
         }
+        return transition;
     }
 
     public void deleteAllGames() {
-        gameRepository.deleteAllGames();
+        stateStore.deleteAll();
+        inputBuffer.clear();
     }
 
     public BoardState getBoardState(String roomId) {
-        return gameRepository.getBoard(roomId);
+        return stateStore.load(roomId);
+    }
+
+    /**
+     * Construye la vista del juego para el frontend. Si la partida vive en memoria
+     * se copia bajo el lock del tablero para no leerlo a medio tick.
+     * @param roomId ID de la sala
+     * @return Estado del juego o null si no existe
+     */
+    public GameStateDTO getGameState(String roomId) {
+        BoardState board = stateStore.load(roomId);
+        if (board == null) {
+            return null;
+        }
+        synchronized (board) {
+            return new GameStateDTO(board, board.getPlayers());
+        }
     }
 
     private int calculatePosition(Player player, BoardState board) {
@@ -0,0 +1,228 @@
+package com.serpentia.service;
+
+import com.serpentia.model.BoardState;
+import com.serpentia.repository.GameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acceso al estado de las partidas en curso.
+ *
+ * <p>En modo "redis" (por defecto) Redis es la fuente de verdad: cada tick lee y
+ * escribe el tablero completo. En modo "memory" el nodo dueño del lease de la sala
+ * conserva el BoardState vivo en memoria y solo guarda checkpoints en Redis cada
+ * N ticks o en transiciones de estado (inicio, eliminación, fin), de modo que el
+ * tráfico a Redis depende de la frecuencia de checkpoint y no de ticks × salas.</p>
+ *
+ * <p>En ambos modos el bucle lee los tableros de una pasada con {@link #loadForTicks}
+ * y guarda los que {@link #afterTick} marca con {@link #saveAll}, en lotes a medida
+ * que terminan sus salas, de modo que una pasada cuesta pocos viajes a Redis aunque
+ * avance muchas salas.</p>
+ */
+@Service
+public class GameStateStore {
+
+    private final GameRepository gameRepository;
+    private final boolean inMemory;
+    private final int checkpointInterval;
+    private final Map<String, BoardState> liveBoards = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ticksSinceCheckpoint = new ConcurrentHashMap<>();
+
+    public GameStateStore(GameRepository gameRepository,
+                          @Value("${serpentia.game.state-mode:redis}") String stateMode,
+                          @Value("${serpentia.game.checkpoint-interval:25}") int checkpointInterval) {
+        this.gameRepository = gameRepository;
+        this.inMemory = "memory".equalsIgnoreCase(stateMode);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * @return true si las partidas de este nodo viven en memoria con checkpoints a Redis
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * Registra una partida recién iniciada y guarda su primer checkpoint.
+     * @param board Tablero inicial
+     */
+    public void start(BoardState board) {
+        if (inMemory) {
+            liveBoards.put(board.getRoomId(), board);
+            ticksSinceCheckpoint.put(board.getRoomId(), 0);
+        }
+        gameRepository.saveBoard(board);
+    }
+
+    /**
+     * Obtiene el tablero vivo de este nodo o, si no lo tiene, el último guardado en Redis.
+     * @param roomId ID de la sala
+     * @return Tablero o null si no existe
+     */
+    public BoardState load(String roomId) {
+        BoardState live = liveBoards.get(roomId);
+        return live != null ? live : gameRepository.getBoard(roomId);
+    }
+
+    /**
+     * Obtiene el tablero que este nodo va a avanzar. En modo memory, si la sala acaba
+     * de ser reclamada, adopta el último checkpoint de Redis como estado vivo.
+     * @param roomId ID de una sala cuyo lease pertenece a este nodo
+     * @return Tablero o null si no existe
+     */
+    public BoardState loadForTick(String roomId) {
+        if (!inMemory) {
+            return gameRepository.getBoard(roomId);
+        }
+        BoardState live = liveBoards.get(roomId);
+        if (live != null) {
+            return live;
+        }
+        BoardState checkpoint = gameRepository.getBoard(roomId);
+        if (checkpoint != null) {
+            liveBoards.put(roomId, checkpoint);
+            ticksSinceCheckpoint.put(roomId, 0);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Versión por lotes de {@link #loadForTick}: los tableros que no están vivos en
+     * memoria se leen de Redis con una sola consulta.
+     * @param roomIds IDs de salas cuyo lease pertenece a este nodo
+     * @return Tablero por sala, con valor null para las salas sin partida guardada
+     */
+    public Map<String, BoardState> loadForTicks(Collection<String> roomIds) {
+        Map<String, BoardState> boards = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String roomId : roomIds) {
+            BoardState live = inMemory ? liveBoards.get(roomId) : null;
+            if (live != null) {
+                boards.put(roomId, live);
+            } else {
+                missing.add(roomId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return boards;
+        }
+        Map<String, BoardState> stored = gameRepository.getBoards(missing);
+        for (String roomId : missing) {
+            BoardState checkpoint = stored.get(roomId);
+            if (inMemory && checkpoint != null) {
+                liveBoards.put(roomId, checkpoint);
+                ticksSinceCheckpoint.put(roomId, 0);
+            }
+            boards.put(roomId, checkpoint);
+        }
+        return boards;
+    }
+
+    /**
+     * Descarta el estado vivo de una sala sin guardarlo, por ejemplo cuando otro nodo
+     * tomó su lease y el estado local ya no es la fuente de verdad.
+     * @param roomId ID de la sala
+     */
+    public void evict(String roomId) {
+        liveBoards.remove(roomId);
+        ticksSinceCheckpoint.remove(roomId);
+    }
+
+    /**
+     * @param roomId ID de la sala
+     * @return Tablero vivo en memoria de este nodo o null
+     */
+    public BoardState getLive(String roomId) {
+        return liveBoards.get(roomId);
+    }
+
+    /**
+     * @return Tableros que este nodo mantiene en memoria
+     */
+    public Collection<BoardState> liveBoards() {
+        return liveBoards.values();
+    }
+
+    /**
+     * @return IDs de las partidas guardadas en Redis
+     */
+    public Set<String> storedRoomIds() {
+        Set<String> ids = gameRepository.getActiveRoomIds();
+        return ids != null ? ids : Set.of();
+    }
+
+    /**
+     * Guarda el tablero inmediatamente.
+     * @param board Tablero a guardar
+     */
+    public void save(BoardState board) {
+        gameRepository.saveBoard(board);
+    }
+
+    /**
+     * Guarda varios tableros en un solo pipeline.
+     * @param boards Tableros a guardar
+     */
+    public void saveAll(Collection<BoardState> boards) {
+        gameRepository.saveBoards(boards);
+    }
+
+    /**
+     * Registra el fin de un tick y decide si el tablero debe guardarse. En modo redis
+     * se guarda siempre; en modo memory solo cuando toca checkpoint o hubo una
+     * transición de estado. El guardado lo hace quien llama, en un lote de la pasada.
+     * @param board Tablero actualizado
+     * @param transition true si el tick produjo una transición (por ejemplo una eliminación)
+     * @return true si el tablero debe guardarse en Redis
+     */
+    public boolean afterTick(BoardState board, boolean transition) {
+        if (!inMemory) {
+            return true;
+        }
+        if (!liveBoards.containsKey(board.getRoomId())) {
+            return false;
+        }
+        int ticks = ticksSinceCheckpoint.merge(board.getRoomId(), 1, Integer::sum);
+        if (transition || ticks >= checkpointInterval) {
+            ticksSinceCheckpoint.put(board.getRoomId(), 0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retira una partida terminada de memoria y de Redis.
+     * @param roomId ID de la sala
+     */
+    public void finish(String roomId) {
+        liveBoards.remove(roomId);
+        ticksSinceCheckpoint.remove(roomId);
+        gameRepository.deleteBoard(roomId);
+    }
+
+    public void deleteAll() {
+        liveBoards.clear();
+        ticksSinceCheckpoint.clear();
+        gameRepository.deleteAllGames();
+    }
+
+    /**
+     * Guarda un último checkpoint de las partidas vivas, por ejemplo al apagar el nodo.
+     */
+    public void flush() {
+        for (BoardState board : liveBoards.values()) {
+            synchronized (board) {
+                gameRepository.saveBoard(board);
+            }
+        }
+    }
+}
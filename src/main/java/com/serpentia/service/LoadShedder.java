@@ -0,0 +1,195 @@
+package com.serpentia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detecta cuándo el bucle de juego no alcanza a avanzar las salas dentro de su
+ * periodo y recorta trabajo en un orden fijo, para que las partidas en curso
+ * mantengan su frecuencia de tick:
+ * <ol>
+ *   <li>REDUCED_BROADCAST: los keyframes (tablero completo) y los frames de espectadores
+ *       se envían 4 veces menos</li>
+ *   <li>ESSENTIAL_ONLY: sin frames de espectadores ni eventos decorativos (FRUIT); el
+ *       frame conserva cabezas, colas, eliminados, frutas, puntajes, COLLISION y END</li>
+ *   <li>REJECT_STARTS: además {@link RoomAdmission} no inicia partidas nuevas</li>
+ * </ol>
+ * Los keyframes de los jugadores nunca se cortan del todo: desde REDUCED_BROADCAST
+ * siguen yendo uno de cada 4, para que un cliente que perdió un frame se resincronice.
+ *
+ * <p>La carga es el promedio móvil del tiempo real de cada pasada del bucle dividido
+ * por el periodo más corto de sus salas; una pasada con ticks descartados o salas
+ * aún en curso cuenta como desborde. Se sube de nivel en cuanto la carga supera el
+ * umbral y se baja un nivel cada recover-ms que pase por debajo de él.</p>
+ */
+@Component
+public class LoadShedder {
+
+    public enum Level {
+        NORMAL, REDUCED_BROADCAST, ESSENTIAL_ONLY, REJECT_STARTS
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadShedder.class);
+    private static final double SMOOTHING = 0.3;
+    private static final double OVERRUN_LOAD = 1.25;
+    private static final int REDUCED_BROADCAST_FACTOR = 4;
+    /**
+     * Sucesos que solo adornan el frame; una eliminación o el fin de partida nunca se recortan
+     */
+    private static final Set<String> DECORATIVE_EVENTS = Set.of("FRUIT");
+
+    private final boolean enabled;
+    private final double[] thresholds;
+    private final long recoverNanos;
+    private final Counter keyframesDropped;
+    private final Counter eventsDropped;
+    private final Counter spectatorFramesDropped;
+
+    private volatile Level level = Level.NORMAL;
+    private volatile double load;
+    private long belowSince = -1;
+
+    public LoadShedder(MeterRegistry registry,
+                       @Value("${serpentia.game.shedding.enabled:true}") boolean enabled,
+                       @Value("${serpentia.game.shedding.reduce-broadcast-at:0.6}") double reduceBroadcastAt,
+                       @Value("${serpentia.game.shedding.essential-only-at:0.8}") double essentialOnlyAt,
+                       @Value("${serpentia.game.shedding.reject-starts-at:1.0}") double rejectStartsAt,
+                       @Value("${serpentia.game.shedding.recover-ms:3000}") long recoverMillis) {
+        this.enabled = enabled;
+        this.thresholds = new double[]{0, reduceBroadcastAt, essentialOnlyAt, rejectStartsAt};
+        this.recoverNanos = TimeUnit.MILLISECONDS.toNanos(recoverMillis);
+        Gauge.builder("serpentia.shed.level", this, s -> s.level.ordinal())
+                .description("Nivel de recorte de carga: 0 normal, 1 menos keyframes, 2 solo lo esencial, 3 sin partidas nuevas")
+                .register(registry);
+        Gauge.builder("serpentia.shed.load", this, s -> s.load)
+                .description("Fracción del periodo de tick que usa cada pasada del bucle (promedio móvil)")
+                .register(registry);
+        this.keyframesDropped = Counter.builder("serpentia.shed.dropped")
+                .description("Mensajes omitidos por recorte de carga")
+                .tag("what", "keyframe")
+                .register(registry);
+        this.eventsDropped = Counter.builder("serpentia.shed.dropped")
+                .description("Mensajes omitidos por recorte de carga")
+                .tag("what", "event")
+                .register(registry);
+        this.spectatorFramesDropped = Counter.builder("serpentia.shed.dropped")
+                .description("Mensajes omitidos por recorte de carga")
+                .tag("what", "spectator")
+                .register(registry);
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    /**
+     * Registra una pasada del bucle y ajusta el nivel.
+     * @param wallNanos Tiempo real de la pasada
+     * @param budgetNanos Periodo más corto entre las salas de la pasada
+     * @param overrun true si hubo ticks descartados o salas cuyo tick anterior seguía en curso
+     * @param now Instante actual en nanosegundos
+     */
+    public synchronized void recordPass(long wallNanos, long budgetNanos, boolean overrun, long now) {
+        if (!enabled || budgetNanos <= 0) {
+            return;
+        }
+        double sample = (double) wallNanos / budgetNanos;
+        if (overrun) {
+            sample = Math.max(sample, OVERRUN_LOAD);
+        }
+        load += SMOOTHING * (sample - load);
+
+        Level target = Level.NORMAL;
+        for (Level l : Level.values()) {
+            if (l != Level.NORMAL && load >= thresholds[l.ordinal()]) {
+                target = l;
+            }
+        }
+        Level current = level;
+        if (target.compareTo(current) >= 0) {
+            belowSince = -1;
+            if (target != current) {
+                change(current, target);
+            }
+        } else if (belowSince < 0) {
+            belowSince = now;
+        } else if (now - belowSince >= recoverNanos) {
+            belowSince = now;
+            change(current, Level.values()[current.ordinal() - 1]);
+        }
+    }
+
+    /**
+     * @param tick Tick recién avanzado
+     * @param interval Cada cuántos ticks va un keyframe sin recorte
+     * @return true si el frame de este tick debe llevar el tablero completo
+     */
+    public boolean sendKeyframe(long tick, int interval) {
+        return sample(tick, interval, Level.REJECT_STARTS, keyframesDropped);
+    }
+
+    /**
+     * @param tick Tick recién avanzado
+     * @param stride Cada cuántos ticks va un frame de espectadores sin recorte
+     * @return true si en este tick se arma un frame para los espectadores
+     */
+    public boolean sendSpectatorFrame(long tick, int stride) {
+        return sample(tick, stride, Level.REDUCED_BROADCAST, spectatorFramesDropped);
+    }
+
+    /**
+     * @param type Tipo de suceso del TickFrame (COLLISION, FRUIT, END)
+     * @return true si el suceso debe incluirse en el frame
+     */
+    public boolean keepEvent(String type) {
+        if (level.compareTo(Level.ESSENTIAL_ONLY) < 0 || !DECORATIVE_EVENTS.contains(type)) {
+            return true;
+        }
+        eventsDropped.increment();
+        return false;
+    }
+
+    /**
+     * @return true si se pueden iniciar partidas nuevas
+     */
+    public boolean acceptsNewGames() {
+        return level != Level.REJECT_STARTS;
+    }
+
+    /**
+     * Muestreo periódico: todos los múltiplos de interval en NORMAL, uno de cada
+     * REDUCED_BROADCAST_FACTOR desde REDUCED_BROADCAST hasta lastLevel y ninguno por encima.
+     */
+    private boolean sample(long tick, int interval, Level lastLevel, Counter dropped) {
+        if (tick % interval != 0) {
+            return false;
+        }
+        Level current = level;
+        boolean send = current == Level.NORMAL
+                || (current.compareTo(lastLevel) <= 0
+                        && tick % ((long) interval * REDUCED_BROADCAST_FACTOR) == 0);
+        if (!send) {
+            dropped.increment();
+        }
+        return send;
+    }
+
+    private void change(Level from, Level to) {
+        level = to;
+        if (to.compareTo(from) > 0) {
+            logger.warn("Bucle de juego sobrecargado (carga {}): recorte de carga {} -> {}",
+                    String.format("%.2f", load), from, to);
+        } else {
+            logger.info("Carga del bucle de juego en {}: recorte de carga {} -> {}",
+                    String.format("%.2f", load), from, to);
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.serpentia.service;
 
 import com.serpentia.dto.RoomDTO;
 import com.serpentia.repository.LobbyRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import java.util.*;
 
 import com.serpentia.websocket.RoomEvent;
 import com.serpentia.exeptions.SerpentiaException;
+import com.serpentia.exeptions.ServerBusyException;
 
 /**
  * Servicio que maneja toda la lógica de negocio relacionada con las salas de juego.
@@ -27,6 +29,8 @@ public class LobbyService {
     private final LobbyRepository lobbyRepository;
     private final PresenceService presenceService;
     private final String lobby = "/topic/lobby";
+    private final int maxRooms;
+    private final long retryAfterSeconds;
 
 
 
@@ -35,15 +39,22 @@ public class LobbyService {
      *
      * @param lobbyRepository Repositorio de las salas
      * @param messagingTemplate Template para envío de mensajes WebSocket
+     * @param maxRooms Salas abiertas como máximo en todo el lobby; 0 = sin límite
+     * @param retryAfterSeconds Segundos sugeridos para reintentar cuando el lobby está lleno
      */
-    public LobbyService(LobbyRepository lobbyRepository, SimpMessagingTemplate messagingTemplate, PresenceService presenceService) {
+    public LobbyService(LobbyRepository lobbyRepository, SimpMessagingTemplate messagingTemplate, PresenceService presenceService,
+                        @Value("${serpentia.lobby.max-rooms:1000}") int maxRooms,
+                        @Value("${serpentia.game.capacity.retry-after-seconds:5}") long retryAfterSeconds) {
         this.lobbyRepository = lobbyRepository;
         this.messagingTemplate = messagingTemplate;
         this.presenceService = presenceService;
+        this.maxRooms = maxRooms;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     /**
      * Guarda o actualiza una sala en Redis.
+     * Lanza ServerBusyException si es una sala nueva y el lobby ya tiene max-rooms.
      * @param room Sala a guardar o actualizar
      * @return Sala guardada con datos actualizados
      */
@@ -53,6 +64,9 @@ public class LobbyService {
             if (existing != null && existing.getCurrentPlayers() != null) {
                 room.setCurrentPlayers(existing.getCurrentPlayers());
             } else {
+                if (maxRooms > 0 && existing == null && lobbyRepository.countRooms() >= maxRooms) {
+                    throw new ServerBusyException("Lobby lleno: " + maxRooms + " salas abiertas", retryAfterSeconds);
+                }
                 List<String> players = new ArrayList<>();
                 players.add(room.getHost());
                 room.setCurrentPlayers(players);
@@ -0,0 +1,218 @@
+package com.serpentia.service;
+
+import com.serpentia.dto.GameStartDTO;
+import com.serpentia.dto.RoomDTO;
+import com.serpentia.exeptions.ServerBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión de partidas en este nodo: antes de iniciar una partida se
+ * comprueba que el nodo pueda simularla sin degradar las que ya corren.
+ *
+ * <p>La capacidad es el menor entre max-rooms y las salas que caben en el pool de
+ * ticks según el costo medido por segundo: {@code hilos * target-utilization / (costo
+ * * ticks por segundo)}, con el costo de un tick ({@link GameLoopMetrics#averageRoomTickNanos()})
+ * y la frecuencia media de las salas propias ({@link GameService#ownedTicksPerSecond()}),
+ * o la frecuencia por defecto si el nodo no tiene salas. Así un nodo lleno de salas a
+ * 30 Hz no cree que le caben tantas como a 5 Hz. Mientras no hay mediciones solo aplica
+ * max-rooms. Tampoco se admite nada mientras {@link LoadShedder} está en REJECT_STARTS.</p>
+ *
+ * <p>La decisión se toma bajo el lock, que reserva el lugar de la sala; el inicio en sí
+ * (lease, guardado y evento START) se hace fuera, para que un Redis lento no frene las
+ * demás peticiones de inicio.</p>
+ *
+ * <p>Sin capacidad, la partida queda en una cola FIFO de este nodo y se inicia sola
+ * cuando termina otra; si la cola está llena se responde 503 con Retry-After. La cola
+ * vive en memoria: si el nodo se cae, los clientes vuelven a pedir el inicio.</p>
+ */
+@Component
+public class RoomAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAdmission.class);
+
+    private final GameService gameService;
+    private final LobbyService lobbyService;
+    private final RoomLeaseService roomLeases;
+    private final GameLoopMetrics loopMetrics;
+    private final TickRatePolicy tickRates;
+    private final LoadShedder shedder;
+    private final int threads;
+    private final int maxRooms;
+    private final double targetUtilization;
+    private final int queueSize;
+    private final long retryAfterSeconds;
+    private final Set<String> queue = new LinkedHashSet<>();
+    private final Set<String> starting = new HashSet<>();
+    private final Counter queued;
+    private final Counter rejected;
+
+    public RoomAdmission(GameService gameService, LobbyService lobbyService, RoomLeaseService roomLeases,
+                         GameLoopMetrics loopMetrics, TickRatePolicy tickRates, LoadShedder shedder,
+                         MeterRegistry registry,
+                         @Value("${serpentia.game.tick-threads:0}") int tickThreads,
+                         @Value("${serpentia.game.capacity.max-rooms:200}") int maxRooms,
+                         @Value("${serpentia.game.capacity.target-utilization:0.7}") double targetUtilization,
+                         @Value("${serpentia.game.capacity.queue-size:50}") int queueSize,
+                         @Value("${serpentia.game.capacity.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.gameService = gameService;
+        this.lobbyService = lobbyService;
+        this.roomLeases = roomLeases;
+        this.loopMetrics = loopMetrics;
+        this.tickRates = tickRates;
+        this.shedder = shedder;
+        this.threads = tickThreads > 0 ? tickThreads : Runtime.getRuntime().availableProcessors();
+        this.maxRooms = maxRooms;
+        this.targetUtilization = targetUtilization;
+        this.queueSize = queueSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Gauge.builder("serpentia.admission.capacity", this, RoomAdmission::capacity)
+                .description("Partidas que este nodo puede simular según max-rooms y el costo medido del tick")
+                .register(registry);
+        Gauge.builder("serpentia.admission.queue", this, RoomAdmission::queueLength)
+                .description("Partidas esperando capacidad para iniciar")
+                .register(registry);
+        this.queued = Counter.builder("serpentia.admission.queued")
+                .description("Partidas que tuvieron que esperar en la cola de inicio")
+                .register(registry);
+        this.rejected = Counter.builder("serpentia.admission.rejected")
+                .description("Inicios rechazados con 503 porque la cola estaba llena")
+                .register(registry);
+    }
+
+    /**
+     * Inicia la partida si hay capacidad o la deja en cola.
+     * Lanza ServerBusyException si tampoco queda lugar en la cola.
+     * @param room Sala a iniciar
+     * @return STARTED, o QUEUED con la posición en la cola
+     */
+    public GameStartDTO requestStart(RoomDTO room) {
+        String roomId = room.getRoomId();
+        synchronized (this) {
+            if (queue.contains(roomId)) {
+                return new GameStartDTO("QUEUED", position(roomId));
+            }
+            if (starting.contains(roomId)) {
+                return new GameStartDTO("STARTED", 0);
+            }
+            if (!queue.isEmpty() || !hasCapacity()) {
+                return enqueue(roomId);
+            }
+            starting.add(roomId);
+        }
+        try {
+            start(room);
+        } finally {
+            release(roomId);
+        }
+        return new GameStartDTO("STARTED", 0);
+    }
+
+    private GameStartDTO enqueue(String roomId) {
+        if (queue.size() >= queueSize) {
+            rejected.increment();
+            throw new ServerBusyException("Nodo sin capacidad y cola de inicio llena", retryAfterSeconds);
+        }
+        queue.add(roomId);
+        queued.increment();
+        logger.info("Sala {} en cola de inicio (posición {}, capacidad {})", roomId, queue.size(), capacity());
+        return new GameStartDTO("QUEUED", queue.size());
+    }
+
+    /**
+     * Inicia las partidas en cola mientras haya capacidad. Las salas borradas mientras
+     * esperaban se descartan.
+     */
+    @Scheduled(fixedDelayString = "${serpentia.game.capacity.drain-ms:500}")
+    public void drain() {
+        for (String roomId : reserveQueued()) {
+            try {
+                RoomDTO room = lobbyService.getRoom(roomId);
+                if (room != null) {
+                    start(room);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo iniciar la sala en cola {}", roomId, e);
+            } finally {
+                release(roomId);
+            }
+        }
+    }
+
+    /**
+     * Saca de la cola las salas que caben y les reserva su lugar hasta que inicien.
+     */
+    private synchronized List<String> reserveQueued() {
+        List<String> reserved = new ArrayList<>();
+        Iterator<String> it = queue.iterator();
+        while (it.hasNext() && hasCapacity()) {
+            String roomId = it.next();
+            it.remove();
+            starting.add(roomId);
+            reserved.add(roomId);
+        }
+        return reserved;
+    }
+
+    private synchronized void release(String roomId) {
+        starting.remove(roomId);
+    }
+
+    /**
+     * @return Partidas que este nodo admite en total
+     */
+    public int capacity() {
+        double cost = loopMetrics.averageRoomTickNanos();
+        if (cost <= 0) {
+            return maxRooms;
+        }
+        int owned = roomLeases.ownedRooms().size();
+        double ticksPerSecond = owned > 0 ? gameService.ownedTicksPerSecond() / owned : 0;
+        if (ticksPerSecond <= 0) {
+            ticksPerSecond = (double) TimeUnit.SECONDS.toNanos(1) / tickRates.defaultPeriodNanos();
+        }
+        double byCost = threads * targetUtilization * TimeUnit.SECONDS.toNanos(1) / (cost * ticksPerSecond);
+        return (int) Math.min(maxRooms, byCost);
+    }
+
+    synchronized int queueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Las salas que están iniciando cuentan como propias aunque aún no tengan su lease.
+     */
+    private boolean hasCapacity() {
+        return shedder.acceptsNewGames() && roomLeases.ownedRooms().size() + starting.size() < capacity();
+    }
+
+    private int position(String roomId) {
+        int position = 1;
+        for (String id : queue) {
+            if (id.equals(roomId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    private void start(RoomDTO room) {
+        gameService.initRoom(room.getRoomId(), room.getCurrentPlayers(), room.getGameMode(),
+                room.getTargetScore(), room.getTickRate());
+    }
+}
@@ -0,0 +1,65 @@
+package com.serpentia.service;
+
+/**
+ * Reloj de paso fijo de una sala. El siguiente tick se programa sumando el periodo
+ * al anterior y no al instante en que se ejecutó, así los retrasos del bucle no se
+ * acumulan como deriva: los ticks atrasados se recuperan o se reportan como perdidos.
+ *
+ * <p>Los ticks caen en múltiplos del periodo, así las salas con la misma frecuencia
+ * vencen en la misma pasada del bucle y sus lecturas y escrituras a Redis van juntas.</p>
+ */
+class RoomClock {
+
+    private volatile long periodNanos;
+    private volatile long nextTickAt;
+    private volatile int lastSkipped;
+
+    RoomClock(long periodNanos, long now) {
+        this.periodNanos = periodNanos;
+        this.nextTickAt = now - Math.floorMod(now, periodNanos);
+    }
+
+    boolean isDue(long now) {
+        return now - nextTickAt >= 0;
+    }
+
+    /**
+     * Consume los ticks vencidos hasta now.
+     * @param now Instante actual en nanosegundos
+     * @param maxCatchUp Máximo de ticks a ejecutar de una vez
+     * @return Ticks a ejecutar; los vencidos por encima de maxCatchUp quedan en lastSkipped
+     */
+    int advance(long now, int maxCatchUp) {
+        if (!isDue(now)) {
+            lastSkipped = 0;
+            return 0;
+        }
+        long period = periodNanos;
+        long owed = (now - nextTickAt) / period + 1;
+        nextTickAt += owed * period;
+        int run = (int) Math.min(owed, maxCatchUp);
+        lastSkipped = (int) Math.min(Integer.MAX_VALUE, owed - run);
+        return run;
+    }
+
+    int lastSkipped() {
+        return lastSkipped;
+    }
+
+    long periodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Cambia el periodo a partir del próximo tick, por ejemplo cuando se conoce la
+     * frecuencia de la sala tras cargar su tablero.
+     */
+    void setPeriod(long periodNanos) {
+        long previous = this.periodNanos;
+        if (previous != periodNanos) {
+            long lastTickAt = nextTickAt - previous;
+            this.nextTickAt = lastTickAt - Math.floorMod(lastTickAt, periodNanos) + periodNanos;
+            this.periodNanos = periodNanos;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.serpentia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffer de movimientos por sala.
+ *
+ * <p>Los comandos de movimiento ya no leen ni escriben el tablero: se guardan aquí
+ * (el último por jugador gana) y el tick los aplica al empezar. Si la sala la avanza
+ * otro nodo, el movimiento se reenvía por el canal "game-input:{roomId}" de Redis,
+ * al que solo está suscrito el nodo dueño del lease, y este lo guarda en su propio
+ * buffer. Un jugador que envía muchas teclas solo
+ * sobrescribe una entrada en memoria, y los movimientos ya no se pierden por
+ * guardados concurrentes del tablero.</p>
+ */
+@Service
+public class RoomInputBuffer {
+
+    private static final String CHANNEL_PREFIX = "game-input:";
+    private static final Logger logger = LoggerFactory.getLogger(RoomInputBuffer.class);
+
+    private final RoomLeaseService roomLeases;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Map<String, String>> pending = new ConcurrentHashMap<>();
+
+    public RoomInputBuffer(RoomLeaseService roomLeases, StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.roomLeases = roomLeases;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registra un movimiento recibido por WebSocket en este nodo.
+     * @param roomId ID de la sala
+     * @param player Jugador que se mueve
+     * @param direction Nueva dirección
+     */
+    public void submit(String roomId, String player, String direction) {
+        if (roomId == null || player == null || direction == null) {
+            return;
+        }
+        if (roomLeases.owns(roomId)) {
+            offer(roomId, player, direction);
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(
+                    Map.of("roomId", roomId, "player", player, "direction", direction));
+            redisTemplate.convertAndSend(channel(roomId), json);
+        } catch (JsonProcessingException e) {
+            logger.error("Error reenviando movimiento de {} en la sala {}: {}", player, roomId, e.getMessage());
+        }
+    }
+
+    /**
+     * Recibe un movimiento reenviado por otro nodo; solo lo guarda el dueño de la sala.
+     * @param roomId ID de la sala
+     * @param player Jugador que se mueve
+     * @param direction Nueva dirección
+     */
+    public void acceptForwarded(String roomId, String player, String direction) {
+        if (roomId != null && player != null && direction != null && roomLeases.owns(roomId)) {
+            offer(roomId, player, direction);
+        }
+    }
+
+    /**
+     * Guarda el movimiento reemplazando el anterior del mismo jugador en este tick.
+     */
+    void offer(String roomId, String player, String direction) {
+        pending.compute(roomId, (id, moves) -> {
+            Map<String, String> m = moves != null ? moves : new LinkedHashMap<>();
+            m.put(player, direction);
+            return m;
+        });
+    }
+
+    /**
+     * Retira los movimientos pendientes de la sala. La retirada es atómica respecto
+     * a offer, así que un movimiento llega a este tick o al siguiente, nunca se pierde.
+     * @param roomId ID de la sala
+     * @return Última dirección pedida por cada jugador (vacío si no hubo movimientos)
+     */
+    public Map<String, String> drain(String roomId) {
+        Map<String, String> moves = pending.remove(roomId);
+        return moves != null ? moves : Map.of();
+    }
+
+    /**
+     * Descarta los movimientos pendientes de una sala que terminó o dejó de ser de este nodo.
+     */
+    public void discard(String roomId) {
+        pending.remove(roomId);
+    }
+
+    /**
+     * @param roomId ID de la sala
+     * @return Canal de Redis por el que llegan los movimientos reenviados de la sala
+     */
+    public static String channel(String roomId) {
+        return CHANNEL_PREFIX + roomId;
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+}
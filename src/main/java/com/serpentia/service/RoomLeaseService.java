@@ -0,0 +1,255 @@
+package com.serpentia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Propiedad de las partidas por sala mediante leases en Redis.
+ *
+ * <p>Cada partida tiene una clave "lease:game:{roomId}" con el ID del nodo que la
+ * avanza y un TTL. El dueño la renueva en cada pasada del bucle, todas sus salas en
+ * un solo pipeline ({@link #renewAll(Collection)}); si deja de hacerlo (caída,
+ * pausa larga) la clave expira y cualquier otro nodo la reclama y continúa la
+ * partida desde su último estado en Redis. Así cada nodo solo simula sus salas y
+ * la capacidad crece con el número de instancias. Las salas ajenas se reclaman en
+ * lote con {@link #claim(Collection, long)}.</p>
+ *
+ * <p>Quien necesite saber qué salas avanza este nodo (por ejemplo, para escuchar
+ * su canal de entrada) se registra con {@link #addListener(Listener)}.</p>
+ */
+@Service
+public class RoomLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomLeaseService.class);
+    private static final String LEASE_PREFIX = "lease:game:";
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId;
+    private final Duration ttl;
+    private final Set<String> ownedRooms = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> retryClaimAt = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Avisos de cambio de dueño de las salas en este nodo.
+     */
+    public interface Listener {
+
+        /**
+         * @param roomId Sala que este nodo acaba de reclamar
+         */
+        void onAcquired(String roomId);
+
+        /**
+         * @param roomId Sala que este nodo liberó o cuyo lease perdió
+         */
+        void onReleased(String roomId);
+    }
+
+    public RoomLeaseService(StringRedisTemplate redisTemplate,
+                            @Value("${serpentia.node-id:}") String nodeId,
+                            @Value("${serpentia.game.lease-ttl-ms:2000}") long ttlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.ttl = Duration.ofMillis(ttlMillis);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return Identificador de este nodo dentro del cluster
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Renueva el lease si la sala ya es de este nodo o intenta reclamarlo si está libre.
+     * @param roomId ID de la sala
+     * @return true si este nodo es dueño de la sala tras la llamada
+     */
+    public boolean acquire(String roomId) {
+        if (ownedRooms.contains(roomId)) {
+            if (renew(roomId)) {
+                return true;
+            }
+            logger.warn("Lease de la sala {} perdido por el nodo {}", roomId, nodeId);
+            return false;
+        }
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(LEASE_PREFIX + roomId, nodeId, ttl);
+        if (Boolean.TRUE.equals(claimed)) {
+            claimed(roomId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Intenta reclamar varias salas en un solo pipeline de SET NX. Una sala que ya tiene
+     * dueño no se reintenta hasta que pase un TTL: mientras su dueño la renueve el lease
+     * no expira antes, y así los nodos no golpean Redis por salas ajenas en cada pasada.
+     * @param roomIds Salas candidatas; las que no aparecen olvidan su espera
+     * @param now Instante actual en nanosegundos
+     * @return Salas que este nodo reclamó en la llamada
+     */
+    public Set<String> claim(Collection<String> roomIds, long now) {
+        retryClaimAt.keySet().retainAll(roomIds);
+        List<String> candidates = roomIds.stream()
+                .filter(id -> !ownedRooms.contains(id))
+                .filter(id -> {
+                    Long retryAt = retryClaimAt.get(id);
+                    return retryAt == null || now - retryAt >= 0;
+                })
+                .toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        byte[] owner = bytes(nodeId);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : candidates) {
+                connection.stringCommands().set(bytes(LEASE_PREFIX + roomId), owner, Expiration.from(ttl),
+                        RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+        Set<String> claimed = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String roomId = candidates.get(i);
+            if (results != null && i < results.size() && Boolean.TRUE.equals(results.get(i))) {
+                retryClaimAt.remove(roomId);
+                claimed(roomId);
+                claimed.add(roomId);
+            } else {
+                retryClaimAt.put(roomId, now + ttl.toNanos());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * @param roomId ID de la sala
+     * @return true si este nodo sigue siendo dueño y el lease se extendió
+     */
+    public boolean renew(String roomId) {
+        Long renewed = redisTemplate.execute(RENEW, List.of(LEASE_PREFIX + roomId), nodeId,
+                String.valueOf(ttl.toMillis()));
+        if (renewed == null || renewed == 0) {
+            drop(roomId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Renueva varios leases en un solo pipeline del script de renovación. Las salas cuyo
+     * lease ya no es de este nodo se sueltan como en {@link #renew(String)}.
+     * @param roomIds Salas de este nodo a renovar
+     * @return Salas que siguen siendo de este nodo
+     */
+    public Set<String> renewAll(Collection<String> roomIds) {
+        List<String> rooms = List.copyOf(roomIds);
+        if (rooms.isEmpty()) {
+            return Set.of();
+        }
+        byte[] script = bytes(RENEW.getScriptAsString());
+        byte[] owner = bytes(nodeId);
+        byte[] millis = bytes(String.valueOf(ttl.toMillis()));
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : rooms) {
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                        bytes(LEASE_PREFIX + roomId), owner, millis);
+            }
+            return null;
+        });
+        Set<String> renewed = new HashSet<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            String roomId = rooms.get(i);
+            Object result = results != null && i < results.size() ? results.get(i) : null;
+            if (result instanceof Long n && n != 0) {
+                renewed.add(roomId);
+            } else {
+                logger.warn("Lease de la sala {} perdido por el nodo {}", roomId, nodeId);
+                drop(roomId);
+            }
+        }
+        return renewed;
+    }
+
+    /**
+     * Libera el lease de una sala si pertenece a este nodo.
+     * @param roomId ID de la sala
+     */
+    public void release(String roomId) {
+        drop(roomId);
+        redisTemplate.execute(RELEASE, List.of(LEASE_PREFIX + roomId), nodeId);
+    }
+
+    /**
+     * Libera todas las salas de este nodo para que otro las retome sin esperar al TTL.
+     */
+    public void releaseAll() {
+        for (String roomId : Set.copyOf(ownedRooms)) {
+            release(roomId);
+        }
+    }
+
+    /**
+     * @param roomId ID de la sala
+     * @return true si, según este nodo, la sala le pertenece
+     */
+    public boolean owns(String roomId) {
+        return ownedRooms.contains(roomId);
+    }
+
+    /**
+     * @return Salas que este nodo avanza actualmente
+     */
+    public Set<String> ownedRooms() {
+        return Set.copyOf(ownedRooms);
+    }
+
+    private void claimed(String roomId) {
+        ownedRooms.add(roomId);
+        logger.info("Sala {} asignada al nodo {}", roomId, nodeId);
+        listeners.forEach(l -> l.onAcquired(roomId));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void drop(String roomId) {
+        if (ownedRooms.remove(roomId)) {
+            listeners.forEach(l -> l.onReleased(roomId));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.serpentia.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas etiquetadas con la sala ("room"): duración de sus ticks y bytes enviados a
+ * /topic/game/{roomId} (el conteo del resumen es el número de mensajes). Las salas
+ * son efímeras, así que las métricas de una sala sin actividad durante room-idle-ms
+ * se quitan del registro para que las series no crezcan sin límite.
+ */
+@Component
+public class RoomMetrics {
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final long idleNanos;
+    private final Map<String, Meters> rooms = new ConcurrentHashMap<>();
+
+    public RoomMetrics(MeterRegistry registry,
+                       @Value("${serpentia.metrics.per-room:true}") boolean enabled,
+                       @Value("${serpentia.metrics.room-idle-ms:60000}") long idleMillis) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    public void recordTick(String roomId, long nanos) {
+        Meters meters = meters(roomId);
+        if (meters != null) {
+            meters.tick.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordSent(String roomId, int bytes) {
+        Meters meters = meters(roomId);
+        if (meters != null) {
+            meters.sent.record(bytes);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${serpentia.metrics.room-idle-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        Iterator<Meters> it = rooms.values().iterator();
+        while (it.hasNext()) {
+            Meters meters = it.next();
+            if (now - meters.lastUsed >= idleNanos) {
+                it.remove();
+                registry.remove(meters.tick);
+                registry.remove(meters.sent);
+            }
+        }
+    }
+
+    /**
+     * @return Salas con métricas registradas
+     */
+    int size() {
+        return rooms.size();
+    }
+
+    private Meters meters(String roomId) {
+        if (!enabled || roomId == null) {
+            return null;
+        }
+        Meters meters = rooms.computeIfAbsent(roomId, this::register);
+        meters.lastUsed = System.nanoTime();
+        return meters;
+    }
+
+    private Meters register(String roomId) {
+        Timer tick = Timer.builder("serpentia.room.tick")
+                .description("Duración del tick de cada sala")
+                .tag("room", roomId)
+                .register(registry);
+        DistributionSummary sent = DistributionSummary.builder("serpentia.room.sent")
+                .description("Mensajes y bytes enviados a /topic/game de cada sala")
+                .baseUnit("bytes")
+                .tag("room", roomId)
+                .register(registry);
+        return new Meters(tick, sent);
+    }
+
+    private static final class Meters {
+        private final Timer tick;
+        private final DistributionSummary sent;
+        private volatile long lastUsed;
+
+        private Meters(Timer tick, DistributionSummary sent) {
+            this.tick = tick;
+            this.sent = sent;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.serpentia.service;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frecuencia de tick de las salas. Cada sala usa la frecuencia pedida al crearla o,
+ * si no pidió ninguna, la de su modo de juego; así una sala rápida puede ir a 20Hz
+ * sin obligar a todas las demás a pagar ese costo.
+ */
+@Component
+public class TickRatePolicy {
+
+    private final int defaultRate;
+    private final int maxRate;
+    private final int maxCatchUp;
+    private final Map<GameMode, Integer> modeRates = new EnumMap<>(GameMode.class);
+
+    public TickRatePolicy(@Value("${serpentia.game.tick-rate.default:5}") int defaultRate,
+                          @Value("${serpentia.game.tick-rate.competitive:0}") int competitiveRate,
+                          @Value("${serpentia.game.tick-rate.team:0}") int teamRate,
+                          @Value("${serpentia.game.tick-rate.cooperative:0}") int cooperativeRate,
+                          @Value("${serpentia.game.tick-rate.max:30}") int maxRate,
+                          @Value("${serpentia.game.max-catch-up-ticks:3}") int maxCatchUp) {
+        this.maxRate = Math.max(1, maxRate);
+        this.defaultRate = clamp(defaultRate);
+        this.maxCatchUp = Math.max(1, maxCatchUp);
+        modeRates.put(GameMode.COMPETITIVE, competitiveRate);
+        modeRates.put(GameMode.TEAM, teamRate);
+        modeRates.put(GameMode.COOPERATIVE, cooperativeRate);
+    }
+
+    /**
+     * Resuelve la frecuencia de una sala nueva.
+     * @param mode Modo de juego
+     * @param requested Frecuencia pedida por la sala (0 = la del modo)
+     * @return Ticks por segundo, entre 1 y el máximo configurado
+     */
+    public int rateFor(GameMode mode, int requested) {
+        if (requested > 0) {
+            return clamp(requested);
+        }
+        int modeRate = mode != null ? modeRates.getOrDefault(mode, 0) : 0;
+        return modeRate > 0 ? clamp(modeRate) : defaultRate;
+    }
+
+    /**
+     * @param board Tablero de la sala; los guardados antes de existir tickRate usan la del modo
+     * @return Periodo entre ticks en nanosegundos
+     */
+    public long periodNanos(BoardState board) {
+        return periodNanos(rateFor(board.getGameMode(), board.getTickRate()));
+    }
+
+    /**
+     * @return Periodo de las salas cuya frecuencia aún no se conoce
+     */
+    public long defaultPeriodNanos() {
+        return periodNanos(defaultRate);
+    }
+
+    /**
+     * @return Máximo de ticks atrasados que se recuperan de una vez; el resto se descarta
+     */
+    public int maxCatchUp() {
+        return maxCatchUp;
+    }
+
+    private int clamp(int rate) {
+        return Math.max(1, Math.min(rate, maxRate));
+    }
+
+    private static long periodNanos(int rate) {
+        return TimeUnit.SECONDS.toNanos(1) / rate;
+    }
+}
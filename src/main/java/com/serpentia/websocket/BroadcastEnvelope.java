@@ -0,0 +1,88 @@
+package com.serpentia.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario con el que un evento ya serializado viaja por Redis:
+ * magic (2 bytes) | versión (1 byte) | hora de envío en epoch ms (8 bytes) |
+ * largo del origen (1 byte) | nodo de origen UTF-8 | largo del destino (2 bytes) |
+ * destino UTF-8 | payload.
+ * El nodo que lo recibe lee solo la cabecera y reenvía el payload tal cual a sus
+ * suscriptores STOMP, sin deserializar ni volver a serializar el evento. El nodo de
+ * origen ya lo entregó localmente, así que descarta su propio mensaje.
+ * Solo se acepta la versión actual.
+ */
+@Getter
+@AllArgsConstructor
+public class BroadcastEnvelope {
+
+    private static final byte MAGIC_0 = 'S';
+    private static final byte MAGIC_1 = 'G';
+    private static final byte VERSION = 3;
+
+    /**
+     * Nodo que serializó y entregó localmente el evento
+     */
+    private final String origin;
+    /**
+     * Hora del nodo de origen (epoch ms) al armar el sobre
+     */
+    private final long sentAt;
+    private final String destination;
+    private final byte[] payload;
+
+    /**
+     * Sobre con la hora actual como hora de envío.
+     */
+    public BroadcastEnvelope(String origin, String destination, byte[] payload) {
+        this(origin, System.currentTimeMillis(), destination, payload);
+    }
+
+    public byte[] encode() {
+        byte[] from = origin.getBytes(StandardCharsets.UTF_8);
+        if (from.length > 255) {
+            throw new IllegalArgumentException("ID de nodo demasiado largo: " + origin);
+        }
+        byte[] dest = destination.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(14 + from.length + dest.length + payload.length)
+                .put(MAGIC_0).put(MAGIC_1).put(VERSION)
+                .putLong(sentAt)
+                .put((byte) from.length).put(from)
+                .putShort((short) dest.length).put(dest)
+                .put(payload)
+                .array();
+    }
+
+    /**
+     * @param bytes Mensaje recibido de Redis
+     * @return Sobre decodificado o null si el mensaje no tiene este formato o es de otra versión
+     */
+    public static BroadcastEnvelope decode(byte[] bytes) {
+        if (bytes == null || bytes.length < 14 || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1
+                || bytes[2] != VERSION) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        buf.position(3);
+        long sentAt = buf.getLong();
+        int originLength = Byte.toUnsignedInt(buf.get());
+        if (buf.remaining() < originLength + 2) {
+            return null;
+        }
+        String origin = new String(bytes, buf.position(), originLength, StandardCharsets.UTF_8);
+        buf.position(buf.position() + originLength);
+        int destLength = Short.toUnsignedInt(buf.getShort());
+        if (buf.remaining() < destLength) {
+            return null;
+        }
+        String destination = new String(bytes, buf.position(), destLength, StandardCharsets.UTF_8);
+        int payloadStart = buf.position() + destLength;
+        byte[] payload = new byte[bytes.length - payloadStart];
+        System.arraycopy(bytes, payloadStart, payload, 0, payload.length);
+        return new BroadcastEnvelope(origin, sentAt, destination, payload);
+    }
+}
@@ -0,0 +1,82 @@
+package com.serpentia.websocket;
+
+import com.serpentia.service.RoomMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de la difusión de eventos: lo que se entrega a los suscriptores STOMP de
+ * este nodo, lo que cuesta publicarlo en Redis, el retraso con el que llega a los
+ * demás nodos (según la hora de envío del BroadcastEnvelope) y las sesiones STOMP
+ * abiertas.
+ */
+@Component
+public class BroadcastMetrics {
+
+    private final RoomMetrics roomMetrics;
+    private final DistributionSummary sent;
+    private final Timer publish;
+    private final Timer relayLag;
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    public BroadcastMetrics(MeterRegistry registry, RoomMetrics roomMetrics) {
+        this.roomMetrics = roomMetrics;
+        this.sent = DistributionSummary.builder("serpentia.broadcast.sent")
+                .description("Mensajes y bytes entregados a los suscriptores de /topic/game de este nodo")
+                .baseUnit("bytes")
+                .register(registry);
+        this.publish = Timer.builder("serpentia.relay.publish")
+                .description("Tiempo desde que se encola un evento hasta que su pipeline de PUBLISH llega a Redis")
+                .register(registry);
+        this.relayLag = Timer.builder("serpentia.relay.lag")
+                .description("Tiempo desde que el nodo de origen envía un evento hasta que otro nodo lo recibe de Redis")
+                .register(registry);
+        Gauge.builder("serpentia.stomp.sessions", sessions, Set::size)
+                .description("Sesiones STOMP abiertas en este nodo")
+                .register(registry);
+    }
+
+    /**
+     * @param destination Destino STOMP, /topic/game/{roomId} o una subruta
+     * @param bytes Tamaño del payload
+     */
+    public void recordSent(String destination, int bytes) {
+        sent.record(bytes);
+        roomMetrics.recordSent(GameChannelRegistry.roomIdOf(destination), bytes);
+    }
+
+    public void recordPublish(long nanos) {
+        publish.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param sentAt Hora de envío del sobre (epoch ms); 0 en sobres que no la traen
+     */
+    public void recordRelayLag(long sentAt) {
+        if (sentAt > 0) {
+            relayLag.record(Math.max(0, System.currentTimeMillis() - sentAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Se cuentan IDs de sesión porque una misma sesión puede notificar su desconexión más de una vez.
+     */
+    public void sessionOpened(String sessionId) {
+        if (sessionId != null) {
+            sessions.add(sessionId);
+        }
+    }
+
+    public void sessionClosed(String sessionId) {
+        if (sessionId != null) {
+            sessions.remove(sessionId);
+        }
+    }
+}
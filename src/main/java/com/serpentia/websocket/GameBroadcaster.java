@@ -0,0 +1,110 @@
+package com.serpentia.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.service.RoomLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Difunde los eventos de una sala serializándolos una sola vez. Los mismos bytes
+ * van a los suscriptores STOMP de este nodo y, dentro de un BroadcastEnvelope
+ * marcado con el ID de este nodo, al canal de Redis de la sala para que los demás nodos los
+ * reenvíen sin tocarlos. Cada suscriptor recibe cada evento exactamente una vez.
+ *
+ * <p>Los espectadores tienen su propio destino, /topic/game/{roomId}/spectate, y su
+ * propio canal de Redis (ver {@link SpectatorFeed}).</p>
+ */
+@Component
+public class GameBroadcaster {
+
+    public static final String TOPIC = "/topic/game/";
+    public static final String SPECTATE = "/spectate";
+    private static final Logger logger = LoggerFactory.getLogger(GameBroadcaster.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final BroadcastMetrics metrics;
+
+    public GameBroadcaster(SimpMessagingTemplate messagingTemplate, GameEventPublisher publisher,
+                           ObjectMapper objectMapper, RoomLeaseService roomLeases, BroadcastMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.nodeId = roomLeases.getNodeId();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return ID de este nodo, con el que se marcan los eventos que origina
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Envía un evento a todos los suscriptores de la sala, en este y en los demás nodos.
+     * @param roomId ID de la sala
+     * @param event Evento a serializar (TickFrame, GameEvent, GameFinishedEvent...)
+     */
+    public void broadcast(String roomId, Object event) {
+        byte[] payload = serialize(roomId, event);
+        if (payload == null) {
+            return;
+        }
+        String destination = TOPIC + roomId;
+        sendLocal(destination, payload);
+        publisher.publish(roomId, new BroadcastEnvelope(nodeId, destination, payload).encode());
+    }
+
+    /**
+     * Envía un evento a los espectadores de la sala, en este y en los demás nodos.
+     * @param roomId ID de la sala
+     * @param event Evento a serializar (SpectatorFrame)
+     */
+    public void broadcastToSpectators(String roomId, Object event) {
+        byte[] payload = serialize(roomId, event);
+        if (payload == null) {
+            return;
+        }
+        String destination = TOPIC + roomId + SPECTATE;
+        sendLocal(destination, payload);
+        publisher.publishTo(GameEventPublisher.spectatorChannel(roomId),
+                new BroadcastEnvelope(nodeId, destination, payload).encode());
+    }
+
+    private byte[] serialize(String roomId, Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializando {} para la sala {}: {}",
+                    event.getClass().getSimpleName(), roomId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Entrega un payload JSON ya serializado a los suscriptores STOMP de este nodo.
+     * @param destination Destino STOMP
+     * @param payload JSON en UTF-8
+     */
+    public void sendLocal(String destination, byte[] payload) {
+        messagingTemplate.send(destination, jsonMessage(payload));
+        metrics.recordSent(destination, payload.length);
+    }
+
+    private static Message<byte[]> jsonMessage(byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,145 @@
+package com.serpentia.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suscribe este nodo al canal de Redis de una sala ("game-events:{roomId}") solo
+ * mientras alguna sesión STOMP local esté suscrita a /topic/game/{roomId}. Así cada
+ * nodo recibe únicamente los eventos de las salas que alguien mira desde él, y el
+ * trabajo de reenvío crece con su audiencia y no con la actividad de todo el cluster.
+ * Los espectadores (/topic/game/{roomId}/spectate) usan el canal "game-spectate:{roomId}",
+ * así un nodo que solo tiene espectadores no recibe el stream completo de la sala.
+ */
+@Component
+public class GameChannelRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameChannelRegistry.class);
+
+    private final RedisMessageListenerContainer container;
+    private final GameEventSubscriber subscriber;
+    /**
+     * Sesión -> (ID de suscripción STOMP -> canal de Redis)
+     */
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    /**
+     * Canal de Redis -> número de suscripciones locales
+     */
+    private final Map<String, Integer> audience = new HashMap<>();
+
+    public GameChannelRegistry(RedisMessageListenerContainer container, GameEventSubscriber subscriber) {
+        this.container = container;
+        this.subscriber = subscriber;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String channel = channelOf(accessor.getDestination());
+        if (channel != null && accessor.getSessionId() != null && accessor.getSubscriptionId() != null) {
+            join(accessor.getSessionId(), accessor.getSubscriptionId(), channel);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        leave(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        leaveAll(event.getSessionId());
+    }
+
+    /**
+     * @return Salas a cuyo canal está suscrito este nodo
+     */
+    public synchronized Set<String> watchedRooms() {
+        Set<String> rooms = new HashSet<>();
+        audience.keySet().forEach(channel -> rooms.add(GameEventPublisher.roomIdOfChannel(channel)));
+        return rooms;
+    }
+
+    private synchronized void join(String sessionId, String subscriptionId, String channel) {
+        String previous = sessions.computeIfAbsent(sessionId, id -> new HashMap<>()).put(subscriptionId, channel);
+        if (previous != null) {
+            release(previous);
+        }
+        if (audience.merge(channel, 1, Integer::sum) == 1) {
+            container.addMessageListener(subscriber, new ChannelTopic(channel));
+            logger.debug("Nodo suscrito al canal {}", channel);
+        }
+    }
+
+    private synchronized void leave(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null || subscriptionId == null) {
+            return;
+        }
+        String channel = subscriptions.remove(subscriptionId);
+        if (subscriptions.isEmpty()) {
+            sessions.remove(sessionId);
+        }
+        if (channel != null) {
+            release(channel);
+        }
+    }
+
+    private synchronized void leaveAll(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String channel) {
+        Integer remaining = audience.computeIfPresent(channel, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            container.removeMessageListener(subscriber, new ChannelTopic(channel));
+            logger.debug("Nodo desuscrito del canal {}", channel);
+        }
+    }
+
+    /**
+     * @param destination Destino STOMP
+     * @return Canal de Redis que alimenta el destino, o null si no es de una partida
+     */
+    static String channelOf(String destination) {
+        String roomId = roomIdOf(destination);
+        if (roomId == null) {
+            return null;
+        }
+        if (destination.equals(GameBroadcaster.TOPIC + roomId + GameBroadcaster.SPECTATE)) {
+            return GameEventPublisher.spectatorChannel(roomId);
+        }
+        return GameEventPublisher.channel(roomId);
+    }
+
+    /**
+     * @param destination Destino STOMP, por ejemplo /topic/game/{roomId}
+     * @return ID de la sala o null si el destino no es de una partida
+     */
+    static String roomIdOf(String destination) {
+        if (destination == null || !destination.startsWith(GameBroadcaster.TOPIC)) {
+            return null;
+        }
+        String rest = destination.substring(GameBroadcaster.TOPIC.length());
+        int slash = rest.indexOf('/');
+        String roomId = slash < 0 ? rest : rest.substring(0, slash);
+        return roomId.isEmpty() ? null : roomId;
+    }
+}
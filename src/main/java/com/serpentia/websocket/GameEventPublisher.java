@@ -1,72 +1,165 @@
 package com.serpentia.websocket;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reenvía los eventos de las salas a los demás nodos por Redis pub/sub.
+ *
+ * <p>Publicar no bloquea al que llama: los eventos entran en una cola y un hilo propio
+ * los envía en un solo pipeline con todo lo acumulado mientras se enviaba el anterior.
+ * Así el hilo de ticks no espera un PUBLISH por sala, y con muchas salas los eventos de
+ * una pasada viajan juntos. La cola es única, de modo que el orden de los eventos de
+ * cada sala se mantiene.</p>
+ */
 @Service
 public class GameEventPublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(GameEventPublisher.class);
+    private static final String CHANNEL_PREFIX = "game-events:";
+    private static final String SPECTATOR_CHANNEL_PREFIX = "game-spectate:";
     private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
-    private static final String CHANNEL = "game-events";
+    private final BroadcastMetrics metrics;
+    private final Executor sender;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private record Pending(byte[] channel, byte[] envelope, long queuedAt) {
+    }
+
+    public GameEventPublisher(StringRedisTemplate redisTemplate, BroadcastMetrics metrics) {
+        this(redisTemplate, metrics, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "game-publish");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
 
-    public GameEventPublisher(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+    GameEventPublisher(StringRedisTemplate redisTemplate, BroadcastMetrics metrics, Executor sender) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.sender = sender;
     }
 
     /**
-     * Publica cualquier tipo de evento del juego a Redis Pub/Sub
-     * @param event Evento a publicar (GameEvent, ScoreEvent, GameFinishedEvent, etc.)
+     * @param roomId ID de la sala
+     * @return Canal de Redis por el que viajan los eventos de la sala
      */
-    public void publishEvent(Object event) {
-        try {
-            EventWrapper wrapper = new EventWrapper(
-                    event.getClass().getSimpleName(),
-                    System.currentTimeMillis(),
-                    event
-            );
-
-            String json = objectMapper.writeValueAsString(wrapper);
-            redisTemplate.convertAndSend(CHANNEL, json);
+    public static String channel(String roomId) {
+        return CHANNEL_PREFIX + roomId;
+    }
 
-            logger.debug("Evento publicado: {} para canal {}",
-                    event.getClass().getSimpleName(), CHANNEL);
+    /**
+     * @param roomId ID de la sala
+     * @return Canal de Redis del stream de espectadores de la sala, separado del de
+     *         los jugadores para que un nodo que solo tiene espectadores no lo reciba
+     */
+    public static String spectatorChannel(String roomId) {
+        return SPECTATOR_CHANNEL_PREFIX + roomId;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error al publicar evento: {}", e.getMessage(), e);
-            // En producción podrías implementar retry logic o dead letter queue
+    /**
+     * @param channel Canal de Redis de una sala
+     * @return ID de la sala del canal, o null si no es un canal de sala
+     */
+    public static String roomIdOfChannel(String channel) {
+        if (channel.startsWith(CHANNEL_PREFIX)) {
+            return channel.substring(CHANNEL_PREFIX.length());
+        }
+        if (channel.startsWith(SPECTATOR_CHANNEL_PREFIX)) {
+            return channel.substring(SPECTATOR_CHANNEL_PREFIX.length());
         }
+        return null;
     }
 
     /**
-     * Publica un GameEvent específico (método de conveniencia)
+     * Publica un evento ya codificado en el canal de la sala para los demás nodos;
+     * solo lo reciben los que tienen suscriptores de esa sala.
+     * @param roomId ID de la sala
+     * @param envelope Bytes de un BroadcastEnvelope
      */
-    public void publish(GameEvent event) {
-        publishEvent(event);
+    public void publish(String roomId, byte[] envelope) {
+        publishTo(channel(roomId), envelope);
     }
 
     /**
-     * Wrapper para agregar metadata a los eventos
+     * Encola el evento; se envía con el próximo pipeline del hilo de publicación.
+     * @param channel Canal de Redis (de jugadores o de espectadores)
+     * @param envelope Bytes de un BroadcastEnvelope
      */
-    private static class EventWrapper {
-        private String eventType;
-        private long timestamp;
-        private Object payload;
-
-        public EventWrapper(String eventType, long timestamp, Object payload) {
-            this.eventType = eventType;
-            this.timestamp = timestamp;
-            this.payload = payload;
+    public void publishTo(String channel, byte[] envelope) {
+        queue.add(new Pending(channel.getBytes(StandardCharsets.UTF_8), envelope, System.nanoTime()));
+        scheduleDrain();
+    }
+
+    /**
+     * Envía lo que quede en la cola antes de apagar el nodo.
+     */
+    @PreDestroy
+    public void shutdown() {
+        drain();
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            logger.warn("Hilo de publicación no disponible, {} eventos en espera", queue.size());
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Pending> batch = new ArrayList<>();
+            for (Pending p = queue.poll(); p != null; p = queue.poll()) {
+                batch.add(p);
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        } finally {
+            draining.set(false);
+        }
+        if (!queue.isEmpty()) {
+            scheduleDrain();
         }
+    }
 
-        // Getters necesarios para Jackson
-        public String getEventType() { return eventType; }
-        public long getTimestamp() { return timestamp; }
-        public Object getPayload() { return payload; }
+    private void send(List<Pending> batch) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Pending p : batch) {
+                    connection.publish(p.channel(), p.envelope());
+                }
+                return null;
+            });
+            long sent = System.nanoTime();
+            batch.forEach(p -> metrics.recordPublish(sent - p.queuedAt()));
+            logger.debug("{} eventos publicados en un pipeline", batch.size());
+        } catch (Exception e) {
+            logger.error("Error al publicar {} eventos: {}", batch.size(), e.getMessage(), e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.serpentia.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.service.RoomInputBuffer;
+import com.serpentia.service.RoomLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recibe los movimientos que otros nodos reenvían por Redis y los entrega al
+ * buffer de entrada. Este nodo escucha el canal "game-input:{roomId}" solo mientras
+ * tiene el lease de la sala, así los demás nodos no decodifican movimientos ajenos.
+ */
+@Component
+public class GameInputSubscriber implements MessageListener, RoomLeaseService.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameInputSubscriber.class);
+    private final ObjectMapper objectMapper;
+    private final RoomInputBuffer inputBuffer;
+    private final RedisMessageListenerContainer container;
+
+    public GameInputSubscriber(ObjectMapper objectMapper, RoomInputBuffer inputBuffer,
+                               RoomLeaseService roomLeases, RedisMessageListenerContainer container) {
+        this.objectMapper = objectMapper;
+        this.inputBuffer = inputBuffer;
+        this.container = container;
+        roomLeases.addListener(this);
+    }
+
+    @Override
+    public void onAcquired(String roomId) {
+        container.addMessageListener(this, new ChannelTopic(RoomInputBuffer.channel(roomId)));
+    }
+
+    @Override
+    public void onReleased(String roomId) {
+        container.removeMessageListener(this, new ChannelTopic(RoomInputBuffer.channel(roomId)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode root = objectMapper.readTree(message.getBody());
+            inputBuffer.acceptForwarded(root.path("roomId").asText(null),
+                    root.path("player").asText(null),
+                    root.path("direction").asText(null));
+        } catch (Exception e) {
+            logger.error("Error procesando movimiento reenviado: {}", e.getMessage(), e);
+        }
+    }
+}
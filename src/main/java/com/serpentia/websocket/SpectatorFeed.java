@@ -0,0 +1,126 @@
+package com.serpentia.websocket;
+
+import com.serpentia.dto.GameStateDTO;
+import com.serpentia.model.BoardState;
+import com.serpentia.service.LoadShedder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stream de espectadores de cada sala en /topic/game/{roomId}/spectate, a menor
+ * frecuencia que el de los jugadores y opcionalmente con retraso.
+ *
+ * <p>El tick decide si toca frame (uno cada interval-ms, menos o ninguno según
+ * {@link LoadShedder}) con su propio número de tick y, si toca, toma una foto mínima
+ * ({@link SpectatorSnapshot}: cuerpos empaquetados, puntajes y frutas) del tablero que
+ * ya tiene bloqueado. Ningún otro hilo lee el tablero vivo: el armado del
+ * {@link GameStateDTO}, la serialización y el envío ocurren en un hilo propio, así que
+ * el stream de los jugadores no paga por los espectadores. Con delay-ms solo el envío
+ * se programa para más tarde.</p>
+ *
+ * <p>El hilo es propio y no un bean: un ScheduledExecutorService en el contexto
+ * reemplazaría al scheduler de las tareas @Scheduled.</p>
+ */
+@Component
+public class SpectatorFeed {
+
+    private final GameBroadcaster broadcaster;
+    private final LoadShedder shedder;
+    private final ScheduledExecutorService executor;
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long delayMillis;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter overflow;
+
+    @Autowired
+    public SpectatorFeed(GameBroadcaster broadcaster, LoadShedder shedder, MeterRegistry registry,
+                         @Value("${serpentia.game.spectator.enabled:true}") boolean enabled,
+                         @Value("${serpentia.game.spectator.interval-ms:1000}") long intervalMillis,
+                         @Value("${serpentia.game.spectator.delay-ms:0}") long delayMillis,
+                         @Value("${serpentia.game.spectator.max-pending:10000}") int maxPending) {
+        this(broadcaster, shedder, registry, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "spectator-feed");
+            t.setDaemon(true);
+            return t;
+        }), enabled, intervalMillis, delayMillis, maxPending);
+    }
+
+    SpectatorFeed(GameBroadcaster broadcaster, LoadShedder shedder, MeterRegistry registry,
+                  ScheduledExecutorService executor, boolean enabled, long intervalMillis,
+                  long delayMillis, int maxPending) {
+        this.broadcaster = broadcaster;
+        this.shedder = shedder;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        this.delayMillis = Math.max(0, delayMillis);
+        this.maxPending = maxPending;
+        this.overflow = Counter.builder("serpentia.spectator.overflow")
+                .description("Frames de espectadores descartados porque el hilo de espectadores iba atrasado")
+                .register(registry);
+    }
+
+    /**
+     * Se llama desde el tick, con el lock del tablero tomado; aquí solo se copia la foto mínima.
+     * @param board Tablero recién avanzado
+     * @param periodNanos Periodo de tick de la sala
+     * @param finished true si la partida terminó en este tick; el último frame siempre se envía
+     */
+    public void offer(BoardState board, long periodNanos, boolean finished) {
+        if (!enabled) {
+            return;
+        }
+        long tick = board.getTick();
+        if (!finished && !shedder.sendSpectatorFrame(tick, stride(periodNanos))) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            overflow.increment();
+            return;
+        }
+        SpectatorSnapshot snapshot = new SpectatorSnapshot(board, System.currentTimeMillis());
+        try {
+            if (delayMillis > 0) {
+                executor.schedule(() -> send(snapshot), delayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                executor.execute(() -> send(snapshot));
+            }
+        } catch (RejectedExecutionException e) {
+            // El nodo se está apagando
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return Ticks entre frames de espectadores para una sala con ese periodo
+     */
+    int stride(long periodNanos) {
+        return (int) Math.max(1, intervalNanos / Math.max(1, periodNanos));
+    }
+
+    private void send(SpectatorSnapshot snapshot) {
+        try {
+            broadcaster.broadcastToSpectators(snapshot.roomId(), snapshot.toFrame());
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.serpentia.websocket;
+
+import com.serpentia.dto.GameStateDTO;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Mensaje de /topic/game/{roomId}/spectate: una foto completa del juego cada
+ * spectator.interval-ms, con delay-ms de retraso respecto del tick. Cada frame se
+ * entiende solo, así que el espectador no necesita los deltas de los jugadores.
+ */
+@Data
+@NoArgsConstructor
+public class SpectatorFrame {
+    private String type = "SPECTATE";
+    private String roomId;
+    private long tick;
+    /**
+     * Hora del servidor (epoch ms) en que se tomó la foto
+     */
+    private long takenAt;
+    private GameStateDTO state;
+
+    public SpectatorFrame(String roomId, long tick, long takenAt, GameStateDTO state) {
+        this.roomId = roomId;
+        this.tick = tick;
+        this.takenAt = takenAt;
+        this.state = state;
+    }
+}
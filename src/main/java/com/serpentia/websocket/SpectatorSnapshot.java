@@ -0,0 +1,81 @@
+package com.serpentia.websocket;
+
+import com.serpentia.dto.GameStateDTO;
+import com.serpentia.dto.PlayerDTO;
+import com.serpentia.dto.TeamDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Player;
+import com.serpentia.model.Point;
+import com.serpentia.model.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto del tablero para espectadores, tomada en el tick con el lock del tablero.
+ * Solo copia lo mínimo (cuerpos empaquetados, puntajes, frutas y equipos); el
+ * {@link GameStateDTO}, con sus listas de Points, se arma después en el hilo de
+ * espectadores con {@link #toFrame()}.
+ */
+final class SpectatorSnapshot {
+
+    private final String roomId;
+    private final long tick;
+    private final long takenAt;
+    private final int width;
+    private final int height;
+    private final String status;
+    private final GameMode gameMode;
+    private final List<Player> players;
+    private final List<Point> fruits;
+    private final Map<String, String> playerToTeam;
+    private final List<TeamDTO> teams;
+
+    SpectatorSnapshot(BoardState board, long takenAt) {
+        this.roomId = board.getRoomId();
+        this.tick = board.getTick();
+        this.takenAt = takenAt;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.status = board.getStatus();
+        this.gameMode = board.getGameMode();
+        this.players = new ArrayList<>(board.getPlayers().size());
+        for (Player p : board.getPlayers().values()) {
+            players.add(new Player(p.getName(), p.getColor(), p.getSnake() != null ? p.getSnake().copy() : null,
+                    p.getDirection(), p.getScore(), p.isAlive(), p.getMaxScore()));
+        }
+        this.fruits = new ArrayList<>(board.getFruits());
+        this.playerToTeam = new HashMap<>(board.getPlayerToTeam());
+        if (gameMode == GameMode.TEAM && board.getTeams() != null) {
+            this.teams = new ArrayList<>(board.getTeams().size());
+            for (Team t : board.getTeams().values()) {
+                List<String> ids = t.getPlayerIds() != null ? new ArrayList<>(t.getPlayerIds()) : new ArrayList<>();
+                teams.add(new TeamDTO(t.getTeamId(), ids, t.getTeamScore(),
+                        t.isEliminated(), t.getTeamColor()));
+            }
+        } else {
+            this.teams = null;
+        }
+    }
+
+    String roomId() {
+        return roomId;
+    }
+
+    SpectatorFrame toFrame() {
+        GameStateDTO state = new GameStateDTO();
+        state.setRoomId(roomId);
+        state.setWidth(width);
+        state.setHeight(height);
+        state.setStatus(status);
+        state.setGameMode(gameMode);
+        state.setPlayers(players.stream().map(PlayerDTO::new).toList());
+        state.setFruits(fruits);
+        state.setPlayerToTeam(playerToTeam);
+        state.setTeams(teams);
+        return new SpectatorFrame(roomId, tick, takenAt, state);
+    }
+}
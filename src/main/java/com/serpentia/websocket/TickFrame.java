@@ -0,0 +1,82 @@
+package com.serpentia.websocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Único mensaje que una sala envía por tick a /topic/game/{roomId}. Reúne todo lo
+ * que pasó en el tick (movimientos, colisiones, frutas, puntajes y fin de partida)
+ * para que se serialice y se envíe una sola vez, sin importar cuántas cosas ocurran.
+ *
+ * <p>Los campos de cambios son relativos al tick anterior y su tamaño depende del
+ * número de serpientes, no de su largo. En los keyframes (cada keyframe-interval
+ * ticks y al terminar la partida) además viaja el tablero completo en board; el
+ * cliente lo toma como estado base y descarta los frames con tick menor o igual.</p>
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TickFrame {
+    private String type = "TICK";
+    private String roomId;
+    private long tick;
+    private String status;
+    /**
+     * Hora del servidor (epoch ms) en que se armó el frame, para medir la latencia hasta el cliente
+     */
+    private long sentAt;
+    /**
+     * Nueva cabeza de cada serpiente que se movió
+     */
+    private Map<String, Point> heads = new LinkedHashMap<>();
+    /**
+     * Jugadores cuya cola se recortó (los que no comieron)
+     */
+    private List<String> tails = new ArrayList<>();
+    private List<String> eliminated = new ArrayList<>();
+    private List<Point> fruitsAdded = new ArrayList<>();
+    private List<Point> fruitsRemoved = new ArrayList<>();
+    /**
+     * Puntaje actual de los jugadores que sumaron en este tick
+     */
+    private Map<String, Integer> scores = new LinkedHashMap<>();
+    /**
+     * Puntaje actual de los equipos que sumaron en este tick (modo TEAM)
+     */
+    private Map<String, Integer> teamScores = new LinkedHashMap<>();
+    /**
+     * Sucesos del tick en el orden en que ocurrieron: COLLISION, FRUIT y END
+     */
+    private List<Event> events = new ArrayList<>();
+    /**
+     * Tablero completo, solo en los keyframes
+     */
+    private BoardState board;
+
+    public TickFrame(String roomId, long tick) {
+        this.roomId = roomId;
+        this.tick = tick;
+    }
+
+    public void addEvent(String type, String player) {
+        events.add(new Event(type, player));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Event {
+        private String type;
+        private String player;
+    }
+}
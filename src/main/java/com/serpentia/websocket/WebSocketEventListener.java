@@ -2,23 +2,35 @@ package com.serpentia.websocket;
 
 import com.serpentia.service.LobbyService;
 import com.serpentia.service.PresenceService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 @Component
 public class WebSocketEventListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     private final LobbyService lobbyService;
 
     private final PresenceService presenceService;
 
-    public WebSocketEventListener(LobbyService lobbyService, PresenceService presenceService) {
+    private final BroadcastMetrics metrics;
+
+    public WebSocketEventListener(LobbyService lobbyService, PresenceService presenceService,
+                                  BroadcastMetrics metrics) {
         this.lobbyService = lobbyService;
         this.presenceService = presenceService;
+        this.metrics = metrics;
+    }
+
+    @EventListener
+    public void handleWebSocketConnectListener(SessionConnectedEvent event) {
+        metrics.sessionOpened(StompHeaderAccessor.wrap(event.getMessage()).getSessionId());
     }
 
     /**
@@ -28,6 +40,7 @@ public class WebSocketEventListener {
      */
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+        metrics.sessionClosed(event.getSessionId());
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String username = (String) headerAccessor.getSessionAttributes().get("username");
 
@@ -36,12 +49,12 @@ public class WebSocketEventListener {
             if (roomId != null) {
                 lobbyService.deletePlayerToRoom(roomId, username);
                 presenceService.removeUserRoom(username);
-                System.out.println("Usuario " + username + " eliminado de la sala " + roomId + " por desconexión.");
+                logger.debug("Usuario {} eliminado de la sala {} por desconexión", username, roomId);
             } else {
-                System.out.println("Desconexión detectada pero el usuario no estaba en ninguna sala: username=" + username);
+                logger.debug("Desconexión de {}, que no estaba en ninguna sala", username);
             }
         } else {
-            System.out.println("Desconexión detectada pero falta el username en la sesión WebSocket");
+            logger.debug("Desconexión sin username en la sesión WebSocket");
         }
     }
 } 
\ No newline at end of file
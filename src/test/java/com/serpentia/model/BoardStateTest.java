@@ -0,0 +1,245 @@
+package com.serpentia.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardStateTest {
+
+    private static final String[] DIRECTIONS = {"UP", "DOWN", "LEFT", "RIGHT"};
+
+    @Test
+    void testIsOccupied_matchesFullScanDuringRandomGames() {
+        Random random = new Random(42);
+        for (int game = 0; game < 50; game++) {
+            BoardState board = new BoardState();
+            board.setWidth(12);
+            board.setHeight(10);
+            for (int i = 0; i < 4; i++) {
+                board.addPlayer("p" + i, "#FF0000", new Point(random.nextInt(12), i * 2));
+            }
+
+            for (int tick = 0; tick < 200 && !board.getSnakePositions().isEmpty(); tick++) {
+                Map<String, Point> newHeads = new HashMap<>();
+                for (Map.Entry<String, SnakeBody> e : board.getSnakePositions().entrySet()) {
+                    Point head = e.getValue().headPoint();
+                    newHeads.put(e.getKey(), step(head, DIRECTIONS[random.nextInt(4)]));
+                }
+
+                Set<String> eliminated = new HashSet<>();
+                for (Map.Entry<String, Point> e : newHeads.entrySet()) {
+                    Point nh = e.getValue();
+                    boolean scan = !board.isInside(nh) || board.getSnakePositions().values().stream()
+                            .anyMatch(body -> body.toPoints().contains(nh));
+                    boolean grid = !board.isInside(nh) || board.isOccupied(nh);
+                    assertEquals(scan, grid, "colisión distinta en " + nh);
+                    if (grid) {
+                        eliminated.add(e.getKey());
+                    }
+                }
+
+                for (Map.Entry<String, Point> e : newHeads.entrySet()) {
+                    if (eliminated.contains(e.getKey())) {
+                        board.eliminatePlayer(e.getKey());
+                        continue;
+                    }
+                    board.pushHead(e.getKey(), e.getValue());
+                    if (random.nextInt(3) != 0) {
+                        board.popTail(e.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIsOccupied_rebuiltAfterSnakePositionsReplaced() {
+        BoardState board = new BoardState();
+        SnakeBody body = SnakeBody.of(SnakeBody.DEFAULT_WIDTH, new Point(3, 4));
+        body.addFirst(body.cell(3, 3));
+        board.setSnakePositions(new HashMap<>(Map.of("p1", body)));
+
+        assertTrue(board.isOccupied(new Point(3, 4)));
+        assertFalse(board.isOccupied(new Point(4, 4)));
+
+        board.popTail("p1");
+        assertFalse(board.isOccupied(new Point(3, 4)));
+    }
+
+    @Test
+    void testSnakeBody_copyUnwrapsRingAndIsIndependent() {
+        SnakeBody body = SnakeBody.of(40, new Point(0, 0));
+        for (int x = 1; x < 12; x++) {
+            body.addFirst(body.cell(x, 0));
+            body.pollLast();
+            body.addFirst(body.cell(x, 1));
+        }
+        SnakeBody copy = body.copy();
+
+        assertEquals(body, copy);
+        assertEquals(body.toPoints(), copy.toPoints());
+        body.pollLast();
+        assertEquals(body.size() + 1, copy.size());
+    }
+
+    @Test
+    void testSpawnFruit_fillsEveryFreeCellThenReportsBoardFull() {
+        BoardState board = new BoardState();
+        board.setWidth(4);
+        board.setHeight(3);
+        board.addPlayer("p1", "#FF0000", new Point(0, 0));
+        board.pushHead("p1", new Point(1, 0));
+
+        int spawned = 0;
+        while (board.spawnFruit()) {
+            spawned++;
+        }
+
+        assertEquals(10, spawned);
+        assertEquals(10, new HashSet<>(board.getFruits()).size());
+        assertFalse(board.getFruits().contains(new Point(0, 0)));
+        assertFalse(board.getFruits().contains(new Point(1, 0)));
+    }
+
+    private BoardState seededBoard(long seed) {
+        BoardState board = new BoardState();
+        board.reseed(seed);
+        board.setWidth(20);
+        board.setHeight(10);
+        board.addPlayer("p1", "#FF0000", new Point(0, 0));
+        board.addPlayer("p2", "#00FF00", new Point(0, 5));
+        return board;
+    }
+
+    @Test
+    void testSpawnFruit_sameSeedSpawnsSameFruits() {
+        BoardState a = seededBoard(7);
+        BoardState b = seededBoard(7);
+        BoardState other = seededBoard(8);
+
+        for (int i = 0; i < 50; i++) {
+            a.spawnFruit();
+            b.spawnFruit();
+            other.spawnFruit();
+        }
+
+        assertEquals(a.getFruits(), b.getFruits());
+        assertEquals(a.getRngState(), b.getRngState());
+        assertEquals(7, a.getSeed());
+        assertNotEquals(a.getFruits(), other.getFruits());
+    }
+
+    @Test
+    void testSpawnFruit_dependsOnStateNotOnGridHistory() {
+        BoardState played = seededBoard(3);
+        for (int i = 0; i < 40; i++) {
+            played.spawnFruit();
+        }
+        for (int i = 0; i < 30; i++) {
+            played.removeFruit(played.getFruits().get(i % played.getFruits().size()));
+        }
+
+        // Mismo estado, pero con los índices reconstruidos desde cero como al leerlo de Redis
+        BoardState restored = seededBoard(3);
+        restored.setRngState(played.getRngState());
+        restored.getFruits().addAll(played.getFruits());
+
+        for (int i = 0; i < 20; i++) {
+            played.spawnFruit();
+            restored.spawnFruit();
+        }
+        assertEquals(played.getFruits(), restored.getFruits());
+    }
+
+    @Test
+    void testBoardGrid_nthFreeCellFollowsIndexOrder() {
+        BoardGrid grid = new BoardGrid(37);
+        for (int c = 0; c < 37; c += 3) {
+            grid.addSegment(c);
+        }
+        grid.setFruit(4, 0);
+        grid.setFruit(36, 1);
+        grid.removeSegment(9);
+        grid.clearFruit(4);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int c = 0; c < 37; c++) {
+            if (!grid.isOccupied(c) && grid.fruitSlot(c) < 0) {
+                expected.add(c);
+            }
+        }
+        assertEquals(expected.size(), grid.freeCount());
+        for (int n = 0; n < expected.size(); n++) {
+            assertEquals(expected.get(n), grid.nthFreeCell(n));
+        }
+        assertThrows(IllegalArgumentException.class, () -> grid.nthFreeCell(expected.size()));
+    }
+
+    @Test
+    void testRemoveFruit_freesCellAndKeepsIndexConsistent() {
+        BoardState board = new BoardState();
+        board.setWidth(3);
+        board.setHeight(1);
+        board.getFruits().addAll(List.of(new Point(0, 0), new Point(1, 0), new Point(2, 0)));
+
+        assertTrue(board.removeFruit(new Point(0, 0)));
+        assertFalse(board.removeFruit(new Point(0, 0)));
+        assertTrue(board.removeFruit(new Point(2, 0)));
+        assertEquals(List.of(new Point(1, 0)), board.getFruits());
+
+        assertTrue(board.spawnFruit());
+        assertTrue(board.spawnFruit());
+        assertFalse(board.spawnFruit());
+        assertEquals(3, new HashSet<>(board.getFruits()).size());
+    }
+
+    @Test
+    void testSnakeBody_keepsPointListJsonShapeAndRelinksPlayers() throws Exception {
+        BoardState board = new BoardState();
+        board.setRoomId("room1");
+        board.addPlayer("p1", "#FF0000", new Point(1, 2));
+        board.pushHead("p1", new Point(2, 2));
+
+        ObjectMapper plain = new ObjectMapper();
+        assertEquals("[{\"x\":2,\"y\":2},{\"x\":1,\"y\":2}]",
+                plain.writeValueAsString(board.getPlayers().get("p1").getSnake()));
+
+        GenericJackson2JsonRedisSerializer redis = new GenericJackson2JsonRedisSerializer();
+        BoardState copy = (BoardState) redis.deserialize(redis.serialize(board));
+        copy.pushHead("p1", new Point(3, 2));
+
+        assertSame(copy.getSnakePositions().get("p1"), copy.getPlayers().get("p1").getSnake());
+        assertEquals(List.of(new Point(3, 2), new Point(2, 2), new Point(1, 2)),
+                copy.getPlayers().get("p1").getSnake().toPoints());
+    }
+
+    @Test
+    void testSnakeBody_readsLegacyDequeJson() throws Exception {
+        String legacy = "{\"@class\":\"com.serpentia.model.BoardState\",\"width\":40,\"height\":30,"
+                + "\"snakePositions\":{\"@class\":\"java.util.HashMap\",\"p1\":[\"java.util.ArrayDeque\","
+                + "[{\"@class\":\"com.serpentia.model.Point\",\"x\":4,\"y\":5},{\"@class\":\"com.serpentia.model.Point\",\"x\":3,\"y\":5}]]}}";
+
+        BoardState board = (BoardState) new GenericJackson2JsonRedisSerializer().deserialize(legacy.getBytes());
+
+        assertTrue(board.isOccupied(new Point(3, 5)));
+        assertEquals(new Point(4, 5), board.getSnakePositions().get("p1").headPoint());
+    }
+
+    private static Point step(Point head, String dir) {
+        return switch (dir) {
+            case "UP" -> new Point(head.getX(), head.getY() - 1);
+            case "DOWN" -> new Point(head.getX(), head.getY() + 1);
+            case "LEFT" -> new Point(head.getX() - 1, head.getY());
+            default -> new Point(head.getX() + 1, head.getY());
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.serpentia.repository;
+
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardHashCodecTest {
+
+    /**
+     * Aplica los cambios pendientes del tablero sobre el hash, como haría Redis.
+     * @return Campos escritos en este guardado
+     */
+    private Set<String> save(BoardState board, Map<String, byte[]> hash) {
+        Map<String, byte[]> set = new HashMap<>();
+        List<String> delete = new ArrayList<>();
+        BoardHashCodec.encodeChanges(board, set, delete);
+        hash.putAll(set);
+        delete.forEach(hash::remove);
+        board.changes().clear();
+        return set.keySet();
+    }
+
+    private void assertSameBoard(BoardState expected, BoardState actual) {
+        assertEquals(expected.getTick(), actual.getTick());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getSnakePositions(), actual.getSnakePositions());
+        assertEquals(expected.getSnakeDirections(), actual.getSnakeDirections());
+        assertEquals(expected.getPlayers(), actual.getPlayers());
+        assertEquals(expected.getTeams(), actual.getTeams());
+        assertEquals(expected.getPlayerToTeam(), actual.getPlayerToTeam());
+        assertEquals(expected.getFruits(), actual.getFruits());
+    }
+
+    @Test
+    void newBoardIsWrittenWholeAndReadBack() {
+        BoardState board = TestBoards.teamBoard();
+        Map<String, byte[]> hash = new HashMap<>();
+
+        Set<String> written = save(board, hash);
+        BoardState copy = BoardHashCodec.decode(hash);
+
+        assertEquals(11, written.size());
+        assertSameBoard(board, copy);
+        assertSame(copy.getPlayers().get("player0").getSnake(), copy.getSnakePositions().get("player0"));
+        assertFalse(copy.changes().isFull());
+        assertTrue(copy.isOccupied(new Point(1, 3)));
+    }
+
+    @Test
+    void movingSnakesRewritesOnlyMetaAndThoseSnakes() {
+        Map<String, byte[]> hash = new HashMap<>();
+        save(TestBoards.teamBoard(), hash);
+        BoardState board = BoardHashCodec.decode(hash);
+
+        board.setTick(1);
+        board.pushHead("player0", new Point(2, 0));
+        board.popTail("player0");
+        board.setPlayerDirection("player1", "DOWN");
+        Set<String> written = save(board, hash);
+
+        assertEquals(Set.of("meta", "snake:player0", "snake:player1", "player:player1"), written);
+        assertSameBoard(board, BoardHashCodec.decode(hash));
+    }
+
+    @Test
+    void scoresAndFruitsRewriteTheirOwnFields() {
+        Map<String, byte[]> hash = new HashMap<>();
+        save(TestBoards.teamBoard(), hash);
+        BoardState board = BoardHashCodec.decode(hash);
+
+        assertTrue(board.removeFruit(board.getFruits().get(0)));
+        board.addScoreToPlayer("player2", 10);
+        board.addScoreToTeam("team2", 10);
+        Set<String> written = save(board, hash);
+
+        assertEquals(Set.of("meta", "player:player2", "teams", "fruits"), written);
+        BoardState copy = BoardHashCodec.decode(hash);
+        assertSameBoard(board, copy);
+        assertEquals(10, copy.getTeams().get("team2").getTeamScore());
+    }
+
+    @Test
+    void eliminationRemovesSnakeFieldButKeepsPlayerBody() {
+        Map<String, byte[]> hash = new HashMap<>();
+        save(TestBoards.teamBoard(), hash);
+        BoardState board = BoardHashCodec.decode(hash);
+
+        board.eliminatePlayer("player3");
+        save(board, hash);
+
+        assertFalse(hash.containsKey("snake:player3"));
+        BoardState copy = BoardHashCodec.decode(hash);
+        assertSameBoard(board, copy);
+        assertFalse(copy.getPlayers().get("player3").isAlive());
+        assertEquals(new Point(1, 9), copy.getPlayers().get("player3").getSnake().headPoint());
+        assertFalse(copy.isOccupied(new Point(1, 9)));
+    }
+
+    @Test
+    void metaKeepsGeneratorAndRejectsVersion1() {
+        BoardState board = TestBoards.teamBoard();
+        board.reseed(99);
+        board.spawnFruit();
+        Map<String, byte[]> hash = new HashMap<>(BoardHashCodec.encodeAll(board));
+
+        BoardState copy = BoardHashCodec.decode(hash);
+        assertEquals(99, copy.getSeed());
+        assertEquals(board.getRngState(), copy.getRngState());
+
+        // Versión 1: los mismos datos generales sin los 16 bytes del generador
+        byte[] meta = hash.get(BoardHashCodec.META);
+        byte[] v1 = Arrays.copyOf(meta, meta.length - 16);
+        v1[1] = 1;
+        hash.put(BoardHashCodec.META, v1);
+        assertThrows(SerializationException.class, () -> BoardHashCodec.decode(hash));
+    }
+
+    @Test
+    void hashWithoutMetaIsMissing() {
+        assertNull(BoardHashCodec.decode(Map.of()));
+    }
+
+    @Test
+    void partialHashIsMissing() {
+        BoardState board = TestBoards.teamBoard();
+        Map<String, byte[]> full = BoardHashCodec.encodeAll(board);
+
+        // Solo lo que escribiría un tick sobre una sala ya borrada: meta y una serpiente
+        Map<String, byte[]> partial = new HashMap<>();
+        partial.put(BoardHashCodec.META, full.get(BoardHashCodec.META));
+        partial.put(BoardHashCodec.SNAKE + "player0", full.get(BoardHashCodec.SNAKE + "player0"));
+        assertNull(BoardHashCodec.decode(partial));
+
+        Map<String, byte[]> orphan = new HashMap<>(full);
+        orphan.remove(BoardHashCodec.PLAYER + "player0");
+        assertNull(BoardHashCodec.decode(orphan));
+    }
+
+    @Test
+    void truncatedFieldIsRejected() {
+        Map<String, byte[]> hash = new HashMap<>(BoardHashCodec.encodeAll(TestBoards.teamBoard()));
+        byte[] fruits = hash.get(BoardHashCodec.FRUITS);
+        hash.put(BoardHashCodec.FRUITS, Arrays.copyOf(fruits, 3));
+
+        assertThrows(SerializationException.class, () -> BoardHashCodec.decode(hash));
+    }
+}
@@ -0,0 +1,129 @@
+package com.serpentia.repository;
+
+import com.serpentia.dto.RoomDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer();
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    /**
+     * Partida ya avanzada: serpientes que crecieron, puntajes y un jugador eliminado.
+     */
+    private BoardState playedBoard() {
+        BoardState board = TestBoards.teamBoard();
+        board.setTick(1234);
+        board.setTickRate(10);
+        board.pushHead("player0", new Point(2, 0));
+        board.pushHead("player0", new Point(3, 0));
+        board.addScoreToPlayer("player0", 20);
+        board.addScoreToTeam("team1", 20);
+        board.setPlayerDirection("player1", "DOWN");
+        board.eliminatePlayer("player3");
+        board.spawnFruit();
+        return board;
+    }
+
+    @Test
+    void boardRoundTripKeepsState() {
+        BoardState board = playedBoard();
+
+        byte[] bytes = serializer.serialize(board);
+        BoardState copy = (BoardState) serializer.deserialize(bytes);
+
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(board.getRoomId(), copy.getRoomId());
+        assertEquals(board.getStatus(), copy.getStatus());
+        assertEquals(GameMode.TEAM, copy.getGameMode());
+        assertEquals(1234, copy.getTick());
+        assertEquals(10, copy.getTickRate());
+        assertEquals(TestBoards.SEED, copy.getSeed());
+        assertEquals(board.getRngState(), copy.getRngState());
+        assertEquals(board.getSnakePositions(), copy.getSnakePositions());
+        assertEquals(board.getSnakeDirections(), copy.getSnakeDirections());
+        assertEquals(board.getPlayers(), copy.getPlayers());
+        assertEquals(board.getTeams(), copy.getTeams());
+        assertEquals(board.getPlayerToTeam(), copy.getPlayerToTeam());
+        assertEquals(board.getFruits(), copy.getFruits());
+        assertFalse(copy.getPlayers().get("player3").isAlive());
+        assertSame(copy.getPlayers().get("player0").getSnake(), copy.getSnakePositions().get("player0"));
+        assertTrue(copy.isOccupied(new Point(3, 0)));
+        assertFalse(copy.isOccupied(new Point(1, 9)));
+    }
+
+    @Test
+    void readsBoardsStoredAsJson() {
+        BoardState board = playedBoard();
+
+        BoardState copy = (BoardState) serializer.deserialize(json.serialize(board));
+
+        assertEquals(board.getSnakePositions(), copy.getSnakePositions());
+        assertEquals(board.getPlayers(), copy.getPlayers());
+        assertEquals(board.getFruits(), copy.getFruits());
+        assertEquals(1234, copy.getTick());
+    }
+
+    @Test
+    void roomRoundTripAndJsonFallback() {
+        RoomDTO room = new RoomDTO("room1", "host", GameMode.COMPETITIVE, 4, List.of("host", "guest"), false, 100, 0);
+
+        assertEquals(room, serializer.deserialize(serializer.serialize(room)));
+        assertEquals(room, serializer.deserialize(json.serialize(room)));
+    }
+
+    @Test
+    void otherValuesStayJson() {
+        assertArrayEquals(json.serialize("room1"), serializer.serialize("room1"));
+        assertEquals("room1", serializer.deserialize(serializer.serialize("room1")));
+        assertNull(serializer.deserialize(null));
+    }
+
+    @Test
+    void jsonModeWritesJsonButReadsBoth() {
+        CompactRedisSerializer jsonWriter = new CompactRedisSerializer(false);
+        BoardState board = playedBoard();
+
+        assertArrayEquals(json.serialize(board), jsonWriter.serialize(board));
+        assertEquals(board.getSnakePositions(),
+                ((BoardState) jsonWriter.deserialize(serializer.serialize(board))).getSnakePositions());
+    }
+
+    @Test
+    void compactBoardIsSmallerThanJson() {
+        BoardState board = playedBoard();
+
+        assertTrue(serializer.serialize(board).length * 3 < json.serialize(board).length);
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedValues() {
+        byte[] bytes = serializer.serialize(playedBoard());
+        byte[] future = bytes.clone();
+        future[1] = 99;
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(future));
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    @Test
+    void rejectsSharedBodyWithoutPlayer() {
+        BoardState board = playedBoard();
+        // La serpiente sigue compartida bajo "player0", pero el jugador se lee como "ghost"
+        board.getPlayers().get("player0").setName("ghost");
+        byte[] bytes = serializer.serialize(board);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,37 @@
+package com.serpentia.repository;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+
+/**
+ * Tableros de prueba compartidos por los tests de los codecs. Las frutas se generan
+ * con la API del tablero, así los índices y los cambios pendientes quedan como en una
+ * partida real.
+ */
+final class TestBoards {
+
+    static final long SEED = -5_000_000_000L;
+
+    private TestBoards() {
+    }
+
+    /**
+     * @return Partida por equipos recién iniciada: 4 jugadores, 2 equipos y 2 frutas
+     */
+    static BoardState teamBoard() {
+        BoardState board = new BoardState();
+        board.reseed(SEED);
+        board.setRoomId("room1");
+        board.setStatus("IN_GAME");
+        board.setGameMode(GameMode.TEAM);
+        board.setTargetScore(200);
+        for (int i = 0; i < 4; i++) {
+            board.addPlayer("player" + i, "#FF000" + i, new Point(1, i * 3));
+        }
+        board.assignTeamsAutomatically();
+        board.spawnFruit();
+        board.spawnFruit();
+        return board;
+    }
+}
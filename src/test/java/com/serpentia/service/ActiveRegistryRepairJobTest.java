@@ -0,0 +1,22 @@
+package com.serpentia.service;
+
+import com.serpentia.repository.GameRepository;
+import com.serpentia.repository.LobbyRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+class ActiveRegistryRepairJobTest {
+
+    @Test
+    void testRepair_repairsGamesAndRooms() {
+        GameRepository gameRepository = mock(GameRepository.class);
+        LobbyRepository lobbyRepository = mock(LobbyRepository.class);
+        when(gameRepository.repairActiveGames()).thenReturn(2);
+
+        new ActiveRegistryRepairJob(gameRepository, lobbyRepository).repair();
+
+        verify(gameRepository).repairActiveGames();
+        verify(lobbyRepository).repairActiveRooms();
+    }
+}
@@ -5,19 +5,27 @@ import com.serpentia.model.BoardState;
 import com.serpentia.model.Point;
 import com.serpentia.model.Player;
 import com.serpentia.repository.GameRepository;
+import com.serpentia.websocket.GameBroadcaster;
 import com.serpentia.websocket.GameEvent;
-import com.serpentia.websocket.ScoreEvent;
+import com.serpentia.websocket.GameFinishedEvent;
+import com.serpentia.websocket.SpectatorFeed;
+import com.serpentia.websocket.TickFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -27,18 +35,112 @@ class GameServiceTest {
     private GameRepository gameRepository;
 
     @Mock
-    private SimpMessagingTemplate ws;
+    private GameBroadcaster broadcaster;
 
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
-    @InjectMocks
+    @Mock
+    private RoomLeaseService roomLeases;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SpectatorFeed spectators;
+
     private GameService gameService;
 
+    private SimpleMeterRegistry meterRegistry;
+    private GameLoopMetrics loopMetrics;
+    private LoadShedder shedder;
+    private final TickRatePolicy tickRates = new TickRatePolicy(5, 0, 0, 0, 30, 3);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private long now;
+    private int keyframeInterval = 20;
+    private int saveBatchSize = 16;
+    private final Map<String, BoardState> stored = new HashMap<>();
+    private final Set<String> owned = new HashSet<>();
+    private final Set<String> lost = new HashSet<>();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        gameService = new GameService(gameRepository, ws, eventPublisher);
+        meterRegistry = new SimpleMeterRegistry();
+        loopMetrics = new GameLoopMetrics(meterRegistry, new RoomMetrics(meterRegistry, true, 60000));
+        shedder = new LoadShedder(meterRegistry, true, 0.6, 0.8, 1.0, 3000);
+        when(roomLeases.acquire(anyString())).thenAnswer(inv -> {
+            owned.add(inv.getArgument(0));
+            return true;
+        });
+        when(roomLeases.claim(anyCollection(), anyLong())).thenAnswer(inv -> {
+            Set<String> claimed = new HashSet<>();
+            for (String roomId : inv.<Collection<String>>getArgument(0)) {
+                if (roomLeases.acquire(roomId)) {
+                    claimed.add(roomId);
+                }
+            }
+            return claimed;
+        });
+        when(roomLeases.renewAll(anyCollection())).thenAnswer(inv -> {
+            Set<String> renewed = new HashSet<>(inv.<Collection<String>>getArgument(0));
+            renewed.retainAll(owned);
+            renewed.removeAll(lost);
+            owned.removeAll(lost);
+            return renewed;
+        });
+        doAnswer(inv -> owned.remove(inv.<String>getArgument(0))).when(roomLeases).release(anyString());
+        when(roomLeases.ownedRooms()).thenAnswer(inv -> Set.copyOf(owned));
+        when(roomLeases.owns(anyString())).thenReturn(true);
+        when(gameRepository.getBoards(anyList())).thenAnswer(inv -> {
+            Map<String, BoardState> boards = new HashMap<>();
+            for (String id : inv.<List<String>>getArgument(0)) {
+                boards.put(id, stored.get(id));
+            }
+            return boards;
+        });
+        gameService = newService(new GameStateStore(gameRepository, "redis", 25));
+    }
+
+    private GameService newService(GameStateStore store) {
+        return newService(store, Runnable::run);
+    }
+
+    private GameService newService(GameStateStore store, Executor executor) {
+        RoomInputBuffer inputBuffer = new RoomInputBuffer(roomLeases, redisTemplate, new ObjectMapper());
+        return new GameService(store, roomLeases, broadcaster, eventPublisher, executor, loopMetrics, tickRates, inputBuffer,
+                shedder, spectators, keyframeInterval, saveBatchSize);
+    }
+
+    /**
+     * Ejecuta una pasada del bucle y adelanta el reloj virtual un periodo por defecto (5Hz).
+     */
+    private void runLoop(GameService service) {
+        service.gameLoop(now);
+        now += TICK_NANOS;
+    }
+
+    /**
+     * @return Tableros guardados por el bucle en todos los pipelines, en orden
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<BoardState> saved() {
+        ArgumentCaptor<Collection<BoardState>> captor = ArgumentCaptor.forClass((Class) Collection.class);
+        verify(gameRepository, atLeast(0)).saveBoards(captor.capture());
+        List<BoardState> boards = new ArrayList<>();
+        captor.getAllValues().forEach(boards::addAll);
+        return boards;
+    }
+
+    private BoardState twoPlayerBoard(String roomId) {
+        BoardState board = new BoardState();
+        board.setRoomId(roomId);
+        board.setStatus("IN_GAME");
+        board.setGameMode(GameMode.COMPETITIVE);
+        board.setTargetScore(1000);
+        board.addPlayer("player1", "#FF0000", new Point(0, 0));
+        board.addPlayer("player2", "#00FF00", new Point(0, 10));
+        return board;
     }
 
     @Test
@@ -46,43 +148,43 @@ class GameServiceTest {
         String roomId = "room1";
         List<String> players = Arrays.asList("player1", "player2");
 
-        gameService.initRoom(roomId, players, GameMode.COMPETITIVE, 100);
+        gameService.initRoom(roomId, players, GameMode.COMPETITIVE, 100, 0);
 
         verify(gameRepository).saveBoard(any(BoardState.class));
-        verify(ws, times(1)).convertAndSend(contains(roomId), (Object) argThat(event -> {
+        verify(broadcaster, times(1)).broadcast(eq(roomId), argThat(event -> {
             return event instanceof GameEvent && ((GameEvent) event).getType().equals("START");
         }));
     }
 
     @Test
-    void testSetDirection_whenInGame_updatesDirectionAndSaves() {
-        String roomId = "room1";
-        String player = "player1";
-        String direction = "UP";
-
-        BoardState board = mock(BoardState.class);
-        Map<String, String> directions = new HashMap<>();
-        Player p = new Player(player, "#FF0000", new Point(0, 0));
+    void testSetDirection_buffersMoveUntilNextTick() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
 
-        when(gameRepository.getBoard(roomId)).thenReturn(board);
-        when(board.getStatus()).thenReturn("IN_GAME");
-        when(board.getSnakeDirections()).thenReturn(directions);
-        when(board.getPlayers()).thenReturn(Map.of(player, p));
+        gameService.setDirection("room1", "player1", "UP");
+        gameService.setDirection("room1", "player1", "DOWN");
 
-        doNothing().when(board).reconstructPlayersIfNeeded();
+        verifyNoInteractions(gameRepository);
 
-        gameService.setDirection(roomId, player, direction);
+        runLoop(gameService);
 
-        assertEquals(direction, directions.get(player));
-        verify(gameRepository).saveBoard(board);
+        assertEquals("DOWN", board.getSnakeDirections().get("player1"));
+        assertEquals("DOWN", board.getPlayers().get("player1").getDirection());
+        assertEquals(new Point(0, 1), board.getSnakePositions().get("player1").headPoint());
+        assertEquals(List.of(board), saved());
     }
 
-
     @Test
-    void testSetDirection_boardNull_doesNothing() {
-        when(gameRepository.getBoard("room1")).thenReturn(null);
-        gameService.setDirection("room1", "player1", "LEFT");
-        verify(gameRepository, never()).saveBoard(any());
+    void testSetDirection_unknownPlayerIsIgnored() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+
+        gameService.setDirection("room1", "intruso", "LEFT");
+        runLoop(gameService);
+
+        assertNull(board.getSnakeDirections().get("intruso"));
     }
 
     @Test
@@ -104,7 +206,6 @@ class GameServiceTest {
     @Test
     void testGameLoop_playerEatsFruit_boardUpdatedAndEventsSent() {
         String roomId = "room1";
-        String redisKey = "game:" + roomId;
 
 
         BoardState board = new BoardState();
@@ -120,30 +221,434 @@ class GameServiceTest {
         Point fruit = new Point(5, 4); // justo arriba
 
         board.addPlayer(player, "#FF0000", start);
+        board.addPlayer("player2", "#00FF00", new Point(0, 0));
         board.getSnakeDirections().put(player, "UP");
+        board.getSnakeDirections().put("player2", "DOWN");
         board.getFruits().add(fruit);
 
 
-        when(gameRepository.getAllGameKeys()).thenReturn(Set.of(redisKey));
-        when(gameRepository.getBoard(roomId)).thenReturn(board);
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of(roomId));
+        stored.put(roomId, board);
 
 
-        gameService.gameLoop();
+        runLoop(gameService);
 
 
-        verify(gameRepository).saveBoard(board);
+        assertEquals(List.of(board), saved());
 
 
-        verify(ws, atLeastOnce()).convertAndSend(contains(roomId), any(GameEvent.class));
-        verify(ws).convertAndSend((String) eq("/topic/game/" + roomId), (Object) argThat(event ->
-                event instanceof GameEvent && ((GameEvent) event).getType().equals("FRUIT")
-        ));
-        verify(ws).convertAndSend((String) eq("/topic/game/" + roomId), (Object) argThat(event ->
-                event instanceof ScoreEvent && ((ScoreEvent) event).getType().equals("SCORE_UPDATE")
-        ));
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster, times(1)).broadcast(eq(roomId), sent.capture());
+        TickFrame frame = (TickFrame) sent.getValue();
+        assertEquals(List.of(new TickFrame.Event("FRUIT", player)), frame.getEvents());
+        assertEquals(10, frame.getScores().get(player));
+        assertTrue(frame.getSentAt() > 0);
 
 
         assertTrue(board.getPlayerScore(player) >= 10);
     }
 
+    @Test
+    void testInitRoom_leaseHeldElsewhere_leavesRoomAlone() {
+        GameService memoryService = newService(new GameStateStore(gameRepository, "memory", 3));
+        doReturn(false).when(roomLeases).acquire("room1");
+
+        memoryService.initRoom("room1", Arrays.asList("player1", "player2"), GameMode.COMPETITIVE, 1000, 0);
+
+        verify(gameRepository, never()).saveBoard(any(BoardState.class));
+        verify(broadcaster, never()).broadcast(anyString(), any());
+    }
+
+    @Test
+    void testGameLoop_inMemoryMode_checkpointsOnlyEveryInterval() {
+        GameService memoryService = newService(new GameStateStore(gameRepository, "memory", 3));
+        String roomId = "room1";
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of(roomId));
+
+        memoryService.initRoom(roomId, Arrays.asList("player1", "player2"), GameMode.COMPETITIVE, 1000, 0);
+        verify(gameRepository, times(1)).saveBoard(any(BoardState.class));
+
+        runLoop(memoryService);
+        runLoop(memoryService);
+        assertTrue(saved().isEmpty());
+
+        runLoop(memoryService);
+        assertEquals(1, saved().size());
+        verify(gameRepository, times(1)).saveBoard(any(BoardState.class));
+        verify(gameRepository, never()).getBoard(anyString());
+        verify(gameRepository, never()).getBoards(anyList());
+    }
+
+    @Test
+    void testGameLoop_inMemoryMode_eliminationForcesCheckpointAndEndRemovesBoard() {
+        GameStateStore store = new GameStateStore(gameRepository, "memory", 100);
+        GameService memoryService = newService(store);
+        BoardState board = twoPlayerBoard("room1");
+        board.addPlayer("player3", "#0000FF", new Point(0, 20));
+        board.getSnakeDirections().put("player1", "LEFT");
+        store.start(board);
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+
+        runLoop(memoryService);
+        assertEquals(List.of(board), saved());
+        assertEquals(2, board.getAlivePlayerCount());
+
+        // Una dirección desconocida deja la cabeza en su sitio y choca consigo misma
+        board.getSnakeDirections().put("player2", "NONE");
+        runLoop(memoryService);
+
+        verify(gameRepository).deleteBoard("room1");
+        assertNull(store.getLive("room1"));
+        assertEquals("FINISHED", board.getStatus());
+    }
+
+    @Test
+    void testSetDirection_inMemoryMode_appliedByTickWithoutRedis() {
+        GameStateStore store = new GameStateStore(gameRepository, "memory", 100);
+        GameService memoryService = newService(store);
+        BoardState board = twoPlayerBoard("room1");
+        store.start(board);
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        clearInvocations(gameRepository);
+
+        memoryService.setDirection("room1", "player1", "DOWN");
+        runLoop(memoryService);
+
+        assertEquals("DOWN", board.getSnakeDirections().get("player1"));
+        assertEquals("DOWN", memoryService.getGameState("room1").getPlayers().stream()
+                .filter(p -> p.getName().equals("player1")).findFirst().orElseThrow().getDirection());
+        verify(gameRepository, never()).getBoard(anyString());
+        verify(gameRepository, never()).saveBoard(any());
+        assertTrue(saved().isEmpty());
+    }
+
+    @Test
+    void testGameLoop_skipsRoomsLeasedByOtherNodes() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        when(roomLeases.owns("room1")).thenReturn(false);
+        doReturn(false).when(roomLeases).acquire("room1");
+
+        // Se intenta reclamar al descubrir salas, no en cada pasada, y no cuenta como tick
+        gameService.gameLoop(now);
+        gameService.gameLoop(now + TimeUnit.MILLISECONDS.toNanos(10));
+        gameService.gameLoop(now + TimeUnit.MILLISECONDS.toNanos(20));
+
+        verify(roomLeases, times(1)).claim(anyCollection(), anyLong());
+        verify(gameRepository, never()).getBoard("room1");
+        verify(gameRepository, never()).getBoards(anyList());
+        verifyNoInteractions(broadcaster);
+        assertEquals(0, meterRegistry.find("serpentia.game.room.tick").timers().stream().mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void testGameLoop_inMemoryMode_adoptsCheckpointOfClaimedRoom() {
+        GameStateStore store = new GameStateStore(gameRepository, "memory", 100);
+        GameService memoryService = newService(store);
+        BoardState checkpoint = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", checkpoint);
+
+        runLoop(memoryService);
+        runLoop(memoryService);
+
+        verify(gameRepository, times(1)).getBoards(List.of("room1"));
+        assertEquals(checkpoint, store.getLive("room1"));
+        assertEquals(new Point(2, 0), checkpoint.getSnakePositions().get("player1").headPoint());
+    }
+
+    @Test
+    void testGameLoop_inMemoryMode_lostLeaseEvictsLiveBoard() {
+        GameStateStore store = new GameStateStore(gameRepository, "memory", 100);
+        GameService memoryService = newService(store);
+        store.start(twoPlayerBoard("room1"));
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        owned.add("room1");
+        lost.add("room1");
+
+        runLoop(memoryService);
+
+        assertNull(store.getLive("room1"));
+    }
+
+    @Test
+    void testShutdown_flushesAndReleasesLeases() {
+        GameStateStore store = new GameStateStore(gameRepository, "memory", 100);
+        GameService memoryService = newService(store);
+        BoardState board = twoPlayerBoard("room1");
+        store.start(board);
+        clearInvocations(gameRepository);
+
+        memoryService.shutdown();
+
+        verify(gameRepository).saveBoard(board);
+        verify(roomLeases).releaseAll();
+    }
+
+    @Test
+    void testGameLoop_ticksRoomsOnExecutorAndRecordsMetrics() {
+        List<Runnable> submitted = new ArrayList<>();
+        GameService parallelService = newService(new GameStateStore(gameRepository, "redis", 25), submitted::add);
+        BoardState room1 = twoPlayerBoard("room1");
+        BoardState room2 = twoPlayerBoard("room2");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1", "room2"));
+        stored.put("room1", room1);
+        stored.put("room2", room2);
+
+        runLoop(parallelService);
+
+        // El scheduler solo despacha la pasada; la lectura ocurre ya en el pool
+        assertEquals(1, submitted.size());
+        verify(gameRepository, never()).getBoards(anyList());
+        submitted.get(0).run();
+        assertEquals(3, submitted.size());
+        verify(gameRepository, times(1)).getBoards(anyList());
+        submitted.get(1).run();
+        assertTrue(saved().isEmpty());
+        submitted.get(2).run();
+
+        verify(gameRepository, times(1)).saveBoards(anyCollection());
+        assertEquals(Set.of(room1, room2), new HashSet<>(saved()));
+        verify(gameRepository, never()).getBoard(anyString());
+        assertEquals(2, meterRegistry.get("serpentia.game.room.tick").timer().count());
+        assertEquals(1, meterRegistry.get("serpentia.game.loop.wall").timer().count());
+        assertEquals(2.0, meterRegistry.get("serpentia.game.loop.rooms").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("serpentia.room.tick").tag("room", "room1").timer().count());
+    }
+
+    @Test
+    void testGameLoop_skipsRoomWhosePreviousTickIsStillRunning() {
+        List<Runnable> submitted = new ArrayList<>();
+        GameService parallelService = newService(new GameStateStore(gameRepository, "redis", 25), submitted::add);
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", twoPlayerBoard("room1"));
+
+        runLoop(parallelService);
+        runLoop(parallelService);
+
+        assertEquals(1, submitted.size());
+        assertEquals(1.0, meterRegistry.get("serpentia.game.loop.busy").counter().count());
+        // La pasada en la que todo seguía en curso cuenta como desborde aunque no avanzó nada
+        assertEquals(0.375, meterRegistry.get("serpentia.shed.load").gauge().value(), 1e-9);
+
+        submitted.get(0).run();
+        submitted.get(1).run();
+        runLoop(parallelService);
+
+        assertEquals(3, submitted.size());
+    }
+
+    @Test
+    void testGameLoop_savedRoomLeavesFlightWithoutWaitingForSlowRoom() {
+        saveBatchSize = 1;
+        List<Runnable> submitted = new ArrayList<>();
+        GameService parallelService = newService(new GameStateStore(gameRepository, "redis", 25), submitted::add);
+        BoardState room1 = twoPlayerBoard("room1");
+        BoardState room2 = twoPlayerBoard("room2");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1", "room2"));
+        stored.put("room1", room1);
+        stored.put("room2", room2);
+
+        runLoop(parallelService);
+        submitted.get(0).run();
+        submitted.get(1).run();
+
+        // La sala que terminó ya está guardada y entra en la pasada siguiente; la otra sigue en curso
+        BoardState done = saved().get(0);
+        runLoop(parallelService);
+        assertEquals(4, submitted.size());
+        assertEquals(1.0, meterRegistry.get("serpentia.game.loop.busy").counter().count());
+        submitted.get(3).run();
+        assertEquals(5, submitted.size());
+        assertEquals(0, meterRegistry.find("serpentia.game.loop.wall").timer().count());
+
+        submitted.get(2).run();
+        submitted.get(4).run();
+        assertEquals(Set.of(room1, room2), new HashSet<>(saved()));
+        assertEquals(3, saved().size());
+        assertEquals(2, saved().stream().filter(b -> b == done).count());
+        assertEquals(2, meterRegistry.get("serpentia.game.loop.wall").timer().count());
+    }
+
+    @Test
+    void testGameLoop_failingRoomDoesNotStopOthers() {
+        BoardState room2 = twoPlayerBoard("room2");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1", "room2"));
+        stored.put("room1", twoPlayerBoard("room1"));
+        stored.put("room2", room2);
+        doThrow(new IllegalStateException("redis caído")).when(broadcaster).broadcast(eq("room1"), any());
+
+        runLoop(gameService);
+        runLoop(gameService);
+
+        assertEquals(List.of(room2, room2), saved());
+        verify(broadcaster, times(2)).broadcast(eq("room1"), any());
+    }
+
+    @Test
+    void testGameLoop_failedBatchReadFallsBackToPerRoomReads() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        when(gameRepository.getBoards(anyList())).thenThrow(new IllegalStateException("timeout"));
+        when(gameRepository.getBoard("room1")).thenReturn(board);
+
+        runLoop(gameService);
+
+        assertEquals(1, board.getTick());
+        assertEquals(List.of(board), saved());
+    }
+
+    @Test
+    void testGameLoop_failedBatchWriteReleasesRooms() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+        doThrow(new IllegalStateException("timeout")).when(gameRepository).saveBoards(anyCollection());
+
+        runLoop(gameService);
+        runLoop(gameService);
+
+        assertEquals(2, board.getTick());
+    }
+
+    @Test
+    void testGameLoop_catchesUpLateTicksAndReportsSkipped() {
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+
+        gameService.gameLoop(0);
+        gameService.gameLoop(TICK_NANOS * 5);
+
+        // 1 tick inicial + 3 recuperados; los otros 2 vencidos se descartan
+        assertEquals(4, board.getTick());
+        assertEquals(2.0, meterRegistry.get("serpentia.game.ticks.skipped").counter().count());
+
+        gameService.gameLoop(TICK_NANOS * 5 + TICK_NANOS / 2);
+        assertEquals(4, board.getTick());
+        gameService.gameLoop(TICK_NANOS * 6);
+        assertEquals(5, board.getTick());
+    }
+
+    @Test
+    void testGameLoop_fastRoomTicksAtItsOwnRate() {
+        BoardState fast = twoPlayerBoard("fast");
+        fast.setTickRate(20);
+        BoardState slow = twoPlayerBoard("slow");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("fast", "slow"));
+        stored.put("fast", fast);
+        stored.put("slow", slow);
+
+        long step = TimeUnit.MILLISECONDS.toNanos(50);
+        for (long t = 0; t <= TICK_NANOS; t += step) {
+            gameService.gameLoop(t);
+        }
+
+        assertEquals(5, fast.getTick());
+        assertEquals(2, slow.getTick());
+    }
+
+    @Test
+    void testInitRoom_resolvesTickRate() {
+        ArgumentCaptor<BoardState> captor = ArgumentCaptor.forClass(BoardState.class);
+
+        gameService.initRoom("room1", List.of("player1"), GameMode.TEAM, 100, 60);
+        gameService.initRoom("room2", List.of("player1"), GameMode.TEAM, 100, 0);
+
+        verify(gameRepository, times(2)).saveBoard(captor.capture());
+        assertEquals(30, captor.getAllValues().get(0).getTickRate());
+        assertEquals(5, captor.getAllValues().get(1).getTickRate());
+    }
+
+    @Test
+    void testGameLoop_sendsOneFrameWithTickChanges() {
+        BoardState board = twoPlayerBoard("room1");
+        board.getSnakeDirections().put("player1", "DOWN");
+        board.getSnakeDirections().put("player2", "DOWN");
+        board.getFruits().add(new Point(0, 1));
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+
+        runLoop(gameService);
+
+        verify(broadcaster, times(1)).broadcast(eq("room1"), sent.capture());
+        TickFrame frame = (TickFrame) sent.getValue();
+        assertEquals(1, frame.getTick());
+        assertEquals("IN_GAME", frame.getStatus());
+        assertEquals(Map.of("player1", new Point(0, 1), "player2", new Point(0, 11)), frame.getHeads());
+        assertEquals(List.of("player2"), frame.getTails());
+        assertEquals(List.of(new Point(0, 1)), frame.getFruitsRemoved());
+        assertEquals(1, frame.getFruitsAdded().size());
+        assertTrue(board.getFruits().contains(frame.getFruitsAdded().get(0)));
+        assertEquals(Map.of("player1", 10), frame.getScores());
+        assertNull(frame.getBoard());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testGameLoop_collisionAndEndGoInTheSameFrame() {
+        BoardState board = twoPlayerBoard("room1");
+        board.getSnakeDirections().put("player1", "LEFT");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+
+        runLoop(gameService);
+
+        verify(broadcaster, times(2)).broadcast(eq("room1"), sent.capture());
+        TickFrame frame = (TickFrame) sent.getAllValues().get(0);
+        GameFinishedEvent finished = (GameFinishedEvent) sent.getAllValues().get(1);
+        verify(eventPublisher).publishEvent(finished);
+        assertEquals(List.of(new TickFrame.Event("COLLISION", "player1"), new TickFrame.Event("END", null)),
+                frame.getEvents());
+        assertEquals(List.of("player1"), frame.getEliminated());
+        assertEquals("FINISHED", frame.getStatus());
+        assertEquals(board, frame.getBoard());
+        verify(spectators).offer(board, TICK_NANOS, true);
+        verify(gameRepository).deleteBoard("room1");
+    }
+
+    @Test
+    void testGameLoop_sendsKeyframeEveryInterval() {
+        keyframeInterval = 2;
+        GameService keyframeService = newService(new GameStateStore(gameRepository, "redis", 25));
+        BoardState board = twoPlayerBoard("room1");
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+
+        runLoop(keyframeService);
+        runLoop(keyframeService);
+
+        verify(broadcaster, times(2)).broadcast(eq("room1"), sent.capture());
+        assertNull(((TickFrame) sent.getAllValues().get(0)).getBoard());
+        TickFrame keyframe = (TickFrame) sent.getAllValues().get(1);
+        assertEquals(2, keyframe.getTick());
+        assertEquals(board, keyframe.getBoard());
+    }
+
+    @Test
+    void testGameLoop_overloadedNodeSendsOnlyEssentialFrameData() {
+        keyframeInterval = 1;
+        GameService keyframeService = newService(new GameStateStore(gameRepository, "redis", 25));
+        for (int i = 0; i < 3; i++) {
+            shedder.recordPass(TICK_NANOS * 3 / 2, TICK_NANOS, false, 0);
+        }
+        assertEquals(LoadShedder.Level.ESSENTIAL_ONLY, shedder.level());
+        BoardState board = twoPlayerBoard("room1");
+        board.getFruits().add(new Point(1, 0));
+        when(gameRepository.getActiveRoomIds()).thenReturn(Set.of("room1"));
+        stored.put("room1", board);
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+
+        runLoop(keyframeService);
+
+        verify(broadcaster).broadcast(eq("room1"), sent.capture());
+        TickFrame frame = (TickFrame) sent.getValue();
+        assertNull(frame.getBoard());
+        assertTrue(frame.getEvents().isEmpty());
+        assertEquals(10, frame.getScores().get("player1"));
+        assertEquals(List.of(new Point(1, 0)), frame.getFruitsRemoved());
+    }
 }
@@ -0,0 +1,98 @@
+package com.serpentia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long RECOVER = TimeUnit.MILLISECONDS.toNanos(3000);
+
+    private SimpleMeterRegistry registry;
+    private LoadShedder shedder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        shedder = new LoadShedder(registry, true, 0.6, 0.8, 1.0, 3000);
+    }
+
+    /**
+     * Registra varias pasadas iguales hasta que el promedio móvil se estabiliza.
+     */
+    private void passes(double fraction, boolean overrun, long now) {
+        for (int i = 0; i < 20; i++) {
+            shedder.recordPass((long) (PERIOD * fraction), PERIOD, overrun, now);
+        }
+    }
+
+    @Test
+    void lightLoadKeepsEverything() {
+        passes(0.2, false, 0);
+
+        assertEquals(LoadShedder.Level.NORMAL, shedder.level());
+        assertTrue(shedder.sendKeyframe(20, 20));
+        assertFalse(shedder.sendKeyframe(21, 20));
+        assertTrue(shedder.keepEvent("FRUIT"));
+        assertTrue(shedder.acceptsNewGames());
+    }
+
+    @Test
+    void levelsDegradeInOrderAsLoadGrows() {
+        passes(0.7, false, 0);
+        assertEquals(LoadShedder.Level.REDUCED_BROADCAST, shedder.level());
+        assertFalse(shedder.sendKeyframe(20, 20));
+        assertTrue(shedder.sendKeyframe(80, 20));
+        assertFalse(shedder.sendSpectatorFrame(5, 5));
+        assertTrue(shedder.sendSpectatorFrame(20, 5));
+        assertTrue(shedder.keepEvent("COLLISION"));
+
+        passes(0.9, false, 0);
+        assertEquals(LoadShedder.Level.ESSENTIAL_ONLY, shedder.level());
+        assertFalse(shedder.sendKeyframe(60, 20));
+        assertTrue(shedder.sendKeyframe(80, 20));
+        assertFalse(shedder.sendSpectatorFrame(20, 5));
+        assertFalse(shedder.keepEvent("FRUIT"));
+        assertTrue(shedder.keepEvent("COLLISION"));
+        assertTrue(shedder.keepEvent("END"));
+        assertTrue(shedder.acceptsNewGames());
+
+        passes(0.5, true, 0);
+        assertEquals(LoadShedder.Level.REJECT_STARTS, shedder.level());
+        assertFalse(shedder.acceptsNewGames());
+        assertTrue(shedder.sendKeyframe(160, 20));
+        assertEquals(3, registry.get("serpentia.shed.level").gauge().value());
+        assertEquals(2.0, registry.get("serpentia.shed.dropped").tag("what", "keyframe").counter().count());
+        assertEquals(2.0, registry.get("serpentia.shed.dropped").tag("what", "spectator").counter().count());
+    }
+
+    @Test
+    void recoversOneLevelPerRecoveryPeriod() {
+        passes(1.5, false, 0);
+        assertEquals(LoadShedder.Level.REJECT_STARTS, shedder.level());
+
+        passes(0.1, false, 0);
+        assertEquals(LoadShedder.Level.REJECT_STARTS, shedder.level());
+
+        shedder.recordPass(0, PERIOD, false, RECOVER);
+        assertEquals(LoadShedder.Level.ESSENTIAL_ONLY, shedder.level());
+        shedder.recordPass(0, PERIOD, false, RECOVER + 1);
+        assertEquals(LoadShedder.Level.ESSENTIAL_ONLY, shedder.level());
+        shedder.recordPass(0, PERIOD, false, 2 * RECOVER);
+        assertEquals(LoadShedder.Level.REDUCED_BROADCAST, shedder.level());
+    }
+
+    @Test
+    void disabledSheddingNeverDegrades() {
+        LoadShedder disabled = new LoadShedder(registry, false, 0.6, 0.8, 1.0, 3000);
+
+        disabled.recordPass(PERIOD * 5, PERIOD, true, 0);
+
+        assertEquals(LoadShedder.Level.NORMAL, disabled.level());
+    }
+}
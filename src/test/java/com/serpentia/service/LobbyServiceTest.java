@@ -2,6 +2,7 @@ package com.serpentia.service;
 
 import com.serpentia.dto.RoomDTO;
 import com.serpentia.exeptions.SerpentiaException;
+import com.serpentia.exeptions.ServerBusyException;
 import com.serpentia.repository.LobbyRepository;
 import com.serpentia.websocket.RoomEvent;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,12 +24,12 @@ class LobbyServiceTest {
     @Mock
     private PresenceService presenceService;
 
-    @InjectMocks
     private LobbyService lobbyService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        lobbyService = new LobbyService(lobbyRepository, messagingTemplate, presenceService, 2, 5);
     }
 
     @Test
@@ -81,6 +82,23 @@ class LobbyServiceTest {
         verify(lobbyRepository).saveRoom(room);
     }
 
+    @Test
+    void testSaveRoom_lobbyFullRejectsNewRoom() {
+        RoomDTO room = new RoomDTO();
+        room.setRoomId("room3");
+        room.setHost("daniel");
+        room.setMaxPlayers(4);
+
+        when(lobbyRepository.getRoom("room3")).thenReturn(null);
+        when(lobbyRepository.countRooms()).thenReturn(2L);
+
+        ServerBusyException ex = assertThrows(ServerBusyException.class, () -> lobbyService.saveRoom(room));
+
+        assertEquals(5, ex.getRetryAfterSeconds());
+        verify(lobbyRepository, never()).saveRoom(any());
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/lobby"), any(RoomEvent.class));
+    }
+
     @Test
     void testAddPlayerToRoom_successful() {
         RoomDTO room = new RoomDTO();
@@ -0,0 +1,165 @@
+package com.serpentia.service;
+
+import com.serpentia.dto.GameStartDTO;
+import com.serpentia.dto.RoomDTO;
+import com.serpentia.enums.GameMode;
+import com.serpentia.exeptions.ServerBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomAdmissionTest {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Mock
+    private GameService gameService;
+    @Mock
+    private LobbyService lobbyService;
+    @Mock
+    private RoomLeaseService roomLeases;
+
+    private SimpleMeterRegistry registry;
+    private GameLoopMetrics loopMetrics;
+    private LoadShedder shedder;
+    private RoomAdmission admission;
+    private final Set<String> owned = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        loopMetrics = new GameLoopMetrics(registry, new RoomMetrics(registry, false, 60000));
+        shedder = new LoadShedder(registry, true, 0.6, 0.8, 1.0, 3000);
+        TickRatePolicy tickRates = new TickRatePolicy(5, 0, 0, 0, 30, 3);
+        admission = new RoomAdmission(gameService, lobbyService, roomLeases, loopMetrics, tickRates, shedder,
+                registry, 2, 2, 0.5, 1, 7);
+
+        when(roomLeases.ownedRooms()).thenAnswer(inv -> Set.copyOf(owned));
+        doAnswer(inv -> owned.add(inv.getArgument(0))).when(gameService)
+                .initRoom(anyString(), anyList(), any(), anyInt(), anyInt());
+        when(gameService.ownedTicksPerSecond()).thenAnswer(inv -> 5.0 * owned.size());
+    }
+
+    private RoomDTO room(String id) {
+        RoomDTO room = new RoomDTO();
+        room.setRoomId(id);
+        room.setCurrentPlayers(List.of("daniel"));
+        room.setGameMode(GameMode.COMPETITIVE);
+        room.setTargetScore(10);
+        when(lobbyService.getRoom(id)).thenReturn(room);
+        return room;
+    }
+
+    @Test
+    void startsWhileUnderMaxRoomsThenQueuesAndRejects() {
+        assertEquals("STARTED", admission.requestStart(room("r1")).getStatus());
+        assertEquals("STARTED", admission.requestStart(room("r2")).getStatus());
+
+        GameStartDTO queued = admission.requestStart(room("r3"));
+        assertEquals("QUEUED", queued.getStatus());
+        assertEquals(1, queued.getPosition());
+        assertEquals(1, admission.requestStart(room("r3")).getPosition());
+
+        ServerBusyException ex = assertThrows(ServerBusyException.class, () -> admission.requestStart(room("r4")));
+        assertEquals(7, ex.getRetryAfterSeconds());
+        verify(gameService, never()).initRoom(eq("r3"), anyList(), any(), anyInt(), anyInt());
+        assertEquals(1.0, registry.get("serpentia.admission.rejected").counter().count());
+        assertEquals(1.0, registry.get("serpentia.admission.queue").gauge().value());
+    }
+
+    @Test
+    void drainStartsQueuedRoomsWhenCapacityFrees() {
+        admission.requestStart(room("r1"));
+        admission.requestStart(room("r2"));
+        admission.requestStart(room("r3"));
+
+        admission.drain();
+        verify(gameService, never()).initRoom(eq("r3"), anyList(), any(), anyInt(), anyInt());
+
+        owned.remove("r1");
+        admission.drain();
+
+        verify(gameService).initRoom(eq("r3"), anyList(), eq(GameMode.COMPETITIVE), eq(10), anyInt());
+        assertEquals(0, admission.queueLength());
+    }
+
+    @Test
+    void drainSkipsRoomsDeletedWhileQueued() {
+        admission.requestStart(room("r1"));
+        admission.requestStart(room("r2"));
+        admission.requestStart(room("r3"));
+        when(lobbyService.getRoom("r3")).thenReturn(null);
+
+        owned.clear();
+        admission.drain();
+
+        verify(gameService, never()).initRoom(eq("r3"), anyList(), any(), anyInt(), anyInt());
+        assertEquals(0, admission.queueLength());
+    }
+
+    @Test
+    void capacityFollowsMeasuredTickCost() {
+        assertEquals(2, admission.capacity());
+
+        // 2 hilos * 0.5 * 200 ms / 150 ms = 1 sala
+        loopMetrics.recordLoop(PERIOD, TimeUnit.MILLISECONDS.toNanos(300), 2);
+        assertEquals(1, admission.capacity());
+        assertEquals("STARTED", admission.requestStart(room("r1")).getStatus());
+        assertEquals("QUEUED", admission.requestStart(room("r2")).getStatus());
+        assertEquals(1.0, registry.get("serpentia.admission.capacity").gauge().value());
+    }
+
+    @Test
+    void capacityWeighsRoomsByTheirTickRate() {
+        // 50 ms por tick: a 5 Hz caben 4 salas (tope 2), a 30 Hz ni una
+        loopMetrics.recordLoop(PERIOD, TimeUnit.MILLISECONDS.toNanos(100), 2);
+        assertEquals(2, admission.capacity());
+        when(gameService.ownedTicksPerSecond()).thenAnswer(inv -> 30.0 * owned.size());
+
+        assertEquals("STARTED", admission.requestStart(room("r1")).getStatus());
+        assertEquals(0, admission.capacity());
+        assertEquals("QUEUED", admission.requestStart(room("r2")).getStatus());
+    }
+
+    @Test
+    void startRunsOutsideTheLockButKeepsItsSlot() {
+        RoomDTO second = room("r2");
+        RoomDTO third = room("r3");
+        List<String> others = new ArrayList<>();
+        doAnswer(inv -> {
+            // Otro hilo pide inicios mientras r1 aún no tiene lease: no espera el lock
+            CompletableFuture.runAsync(() -> {
+                others.add(admission.requestStart(second).getStatus());
+                others.add(admission.requestStart(third).getStatus());
+            }).get(5, TimeUnit.SECONDS);
+            return owned.add("r1");
+        }).when(gameService).initRoom(eq("r1"), anyList(), any(), anyInt(), anyInt());
+
+        assertEquals("STARTED", admission.requestStart(room("r1")).getStatus());
+        assertEquals(List.of("STARTED", "QUEUED"), others);
+    }
+
+    @Test
+    void overloadedNodeQueuesEvenBelowCapacity() {
+        for (int i = 0; i < 20; i++) {
+            shedder.recordPass(2 * PERIOD, PERIOD, true, 0);
+        }
+
+        assertEquals("QUEUED", admission.requestStart(room("r1")).getStatus());
+        verify(gameService, never()).initRoom(anyString(), anyList(), any(), anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,83 @@
+package com.serpentia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomInputBufferTest {
+
+    private RoomLeaseService roomLeases;
+    private StringRedisTemplate redisTemplate;
+    private RoomInputBuffer inputBuffer;
+
+    @BeforeEach
+    void setUp() {
+        roomLeases = mock(RoomLeaseService.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        inputBuffer = new RoomInputBuffer(roomLeases, redisTemplate, new ObjectMapper());
+    }
+
+    @Test
+    void testSubmit_ownedRoom_lastMovePerPlayerWins() {
+        when(roomLeases.owns("room1")).thenReturn(true);
+
+        inputBuffer.submit("room1", "player1", "UP");
+        inputBuffer.submit("room1", "player1", "LEFT");
+        inputBuffer.submit("room1", "player2", "DOWN");
+
+        assertEquals(Map.of("player1", "LEFT", "player2", "DOWN"), inputBuffer.drain("room1"));
+        assertTrue(inputBuffer.drain("room1").isEmpty());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testSubmit_roomOwnedElsewhere_forwardsThroughRedis() throws Exception {
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+
+        inputBuffer.submit("room1", "player1", "UP");
+
+        verify(redisTemplate).convertAndSend(eq("game-input:room1"), json.capture());
+        assertEquals(Map.of("roomId", "room1", "player", "player1", "direction", "UP"),
+                new ObjectMapper().readValue(json.getValue(), Map.class));
+        assertTrue(inputBuffer.drain("room1").isEmpty());
+    }
+
+    @Test
+    void testAcceptForwarded_onlyOwnerKeepsMove() {
+        when(roomLeases.owns("room1")).thenReturn(true);
+
+        inputBuffer.acceptForwarded("room1", "player1", "UP");
+        inputBuffer.acceptForwarded("room2", "player1", "UP");
+        inputBuffer.acceptForwarded("room1", null, "UP");
+
+        assertEquals(Map.of("player1", "UP"), inputBuffer.drain("room1"));
+        assertTrue(inputBuffer.drain("room2").isEmpty());
+    }
+
+    @Test
+    void testDiscardAndClear_dropPendingMoves() {
+        inputBuffer.offer("room1", "player1", "UP");
+        inputBuffer.offer("room2", "player1", "UP");
+
+        inputBuffer.discard("room1");
+        assertTrue(inputBuffer.drain("room1").isEmpty());
+
+        inputBuffer.clear();
+        assertTrue(inputBuffer.drain("room2").isEmpty());
+    }
+
+    @Test
+    void testSubmit_incompleteMoveIsIgnored() {
+        inputBuffer.submit("room1", "player1", null);
+
+        verifyNoInteractions(roomLeases, redisTemplate);
+    }
+}
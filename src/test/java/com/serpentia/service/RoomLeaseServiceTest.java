@@ -0,0 +1,138 @@
+package com.serpentia.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomLeaseServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private RoomLeaseService leaseService;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        leaseService = new RoomLeaseService(redisTemplate, "node-a", 2000);
+    }
+
+    @Test
+    void testAcquire_claimsFreeRoom() {
+        when(valueOperations.setIfAbsent("lease:game:room1", "node-a", Duration.ofMillis(2000))).thenReturn(true);
+
+        assertTrue(leaseService.acquire("room1"));
+        assertTrue(leaseService.owns("room1"));
+        assertEquals(Set.of("room1"), leaseService.ownedRooms());
+    }
+
+    @Test
+    void testAcquire_roomOwnedByOtherNode() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertFalse(leaseService.acquire("room1"));
+        assertFalse(leaseService.owns("room1"));
+    }
+
+    @Test
+    void testAcquire_ownedRoomIsRenewedInsteadOfClaimed() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("lease:game:room1")), eq("node-a"), eq("2000")))
+                .thenReturn(1L);
+        leaseService.acquire("room1");
+
+        assertTrue(leaseService.acquire("room1"));
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testAcquire_expiredLeaseTakenByOtherNodeIsDropped() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        leaseService.acquire("room1");
+
+        assertFalse(leaseService.acquire("room1"));
+        assertFalse(leaseService.owns("room1"));
+    }
+
+    @Test
+    void testClaim_pipelinesFreeRoomsAndWaitsATtlBeforeRetrying() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true, false));
+        long ttl = Duration.ofMillis(2000).toNanos();
+
+        Set<String> claimed = leaseService.claim(List.of("room1", "room2"), 0);
+
+        assertEquals(Set.of("room1"), claimed);
+        assertEquals(Set.of("room1"), leaseService.ownedRooms());
+        // room1 ya es propia y room2 tiene dueño hasta que pase el TTL: nada que enviar
+        assertEquals(Set.of(), leaseService.claim(List.of("room1", "room2"), ttl - 1));
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true));
+        assertEquals(Set.of("room2"), leaseService.claim(List.of("room1", "room2"), ttl));
+    }
+
+    @Test
+    void testRenewAll_renewsInOnePipelineAndDropsLostRooms() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true, true));
+        leaseService.claim(List.of("room1", "room2"), 0);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L, 0L));
+
+        assertEquals(Set.of("room1"), leaseService.renewAll(List.of("room1", "room2")));
+        assertEquals(Set.of("room1"), leaseService.ownedRooms());
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testReleaseAll_releasesEveryOwnedRoom() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        leaseService.acquire("room1");
+        leaseService.acquire("room2");
+
+        leaseService.releaseAll();
+
+        assertTrue(leaseService.ownedRooms().isEmpty());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lease:game:room1")), eq("node-a"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lease:game:room2")), eq("node-a"));
+    }
+
+    @Test
+    void testListener_notifiedOnAcquireLossAndRelease() {
+        RoomLeaseService.Listener listener = mock(RoomLeaseService.Listener.class);
+        leaseService.addListener(listener);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("lease:game:room1")), any(), any()))
+                .thenReturn(0L);
+
+        leaseService.acquire("room1");
+        leaseService.acquire("room2");
+        leaseService.acquire("room1");
+        leaseService.release("room2");
+        leaseService.release("room2");
+
+        verify(listener).onAcquired("room1");
+        verify(listener).onAcquired("room2");
+        verify(listener).onReleased("room1");
+        verify(listener).onReleased("room2");
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void testNodeId_generatedWhenNotConfigured() {
+        RoomLeaseService generated = new RoomLeaseService(redisTemplate, "", 2000);
+        assertFalse(generated.getNodeId().isBlank());
+        assertEquals("node-a", leaseService.getNodeId());
+    }
+}
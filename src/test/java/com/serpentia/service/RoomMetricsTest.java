@@ -0,0 +1,58 @@
+package com.serpentia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private RoomMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RoomMetrics(registry, true, 1000);
+    }
+
+    @Test
+    void recordsTicksAndSentBytesPerRoom() {
+        metrics.recordTick("room1", TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.recordSent("room1", 100);
+        metrics.recordSent("room1", 50);
+        metrics.recordSent("room2", 10);
+
+        assertEquals(1, registry.get("serpentia.room.tick").tag("room", "room1").timer().count());
+        assertEquals(2, registry.get("serpentia.room.sent").tag("room", "room1").summary().count());
+        assertEquals(150.0, registry.get("serpentia.room.sent").tag("room", "room1").summary().totalAmount());
+        assertEquals(2, metrics.size());
+    }
+
+    @Test
+    void idleRoomsAreRemovedFromTheRegistry() {
+        metrics.recordSent("room1", 100);
+
+        metrics.evictIdle(System.nanoTime());
+        assertEquals(1, metrics.size());
+
+        metrics.evictIdle(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, metrics.size());
+        assertNull(registry.find("serpentia.room.sent").tag("room", "room1").summary());
+
+        metrics.recordSent("room1", 5);
+        assertEquals(5.0, registry.get("serpentia.room.sent").tag("room", "room1").summary().totalAmount());
+    }
+
+    @Test
+    void disabledOrUnknownRoomRecordsNothing() {
+        new RoomMetrics(registry, false, 1000).recordTick("room1", 1);
+        metrics.recordSent(null, 10);
+
+        assertNull(registry.find("serpentia.room.tick").timer());
+        assertEquals(0, metrics.size());
+    }
+}
@@ -0,0 +1,37 @@
+package com.serpentia.service;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TickRatePolicyTest {
+
+    private final TickRatePolicy policy = new TickRatePolicy(5, 20, 0, 0, 30, 3);
+
+    @Test
+    void testRateFor_usesModeRateOrDefault() {
+        assertEquals(20, policy.rateFor(GameMode.COMPETITIVE, 0));
+        assertEquals(5, policy.rateFor(GameMode.TEAM, 0));
+        assertEquals(5, policy.rateFor(null, 0));
+    }
+
+    @Test
+    void testRateFor_requestedRateIsClamped() {
+        assertEquals(10, policy.rateFor(GameMode.TEAM, 10));
+        assertEquals(30, policy.rateFor(GameMode.TEAM, 120));
+    }
+
+    @Test
+    void testPeriodNanos_legacyBoardUsesModeRate() {
+        BoardState board = new BoardState();
+        board.setGameMode(GameMode.COMPETITIVE);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), policy.periodNanos(board));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), policy.defaultPeriodNanos());
+        assertEquals(3, policy.maxCatchUp());
+    }
+}
@@ -0,0 +1,139 @@
+package com.serpentia.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpentia.service.RoomLeaseService;
+import com.serpentia.service.RoomMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GameBroadcasterTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private GameEventPublisher publisher;
+    private GameBroadcaster broadcaster;
+    private GameEventSubscriber subscriber;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        publisher = mock(GameEventPublisher.class);
+        ObjectMapper objectMapper = new ObjectMapper();
+        RoomLeaseService roomLeases = mock(RoomLeaseService.class);
+        when(roomLeases.getNodeId()).thenReturn("node-a");
+        meterRegistry = new SimpleMeterRegistry();
+        BroadcastMetrics metrics = new BroadcastMetrics(meterRegistry, new RoomMetrics(meterRegistry, true, 60000));
+        broadcaster = new GameBroadcaster(messagingTemplate, publisher, objectMapper, roomLeases, metrics);
+        subscriber = new GameEventSubscriber(broadcaster, metrics);
+    }
+
+    @Test
+    void testBroadcast_sameBytesGoLocalAndToRedis() {
+        TickFrame frame = new TickFrame("room1", 7);
+        ArgumentCaptor<Message<?>> local = ArgumentCaptor.forClass(Message.class);
+        ArgumentCaptor<byte[]> remote = ArgumentCaptor.forClass(byte[].class);
+
+        broadcaster.broadcast("room1", frame);
+
+        verify(messagingTemplate).send(eq("/topic/game/room1"), local.capture());
+        verify(publisher).publish(eq("room1"), remote.capture());
+        byte[] payload = (byte[]) local.getValue().getPayload();
+        assertTrue(new String(payload, StandardCharsets.UTF_8).contains("\"tick\":7"));
+        assertEquals(MimeTypeUtils.APPLICATION_JSON,
+                local.getValue().getHeaders().get("contentType"));
+
+        BroadcastEnvelope envelope = BroadcastEnvelope.decode(remote.getValue());
+        assertNotNull(envelope);
+        assertEquals("node-a", envelope.getOrigin());
+        assertEquals("/topic/game/room1", envelope.getDestination());
+        assertArrayEquals(payload, envelope.getPayload());
+    }
+
+    @Test
+    void testBroadcastToSpectators_usesSpectatorDestinationAndChannel() {
+        ArgumentCaptor<byte[]> remote = ArgumentCaptor.forClass(byte[].class);
+
+        broadcaster.broadcastToSpectators("room1", new SpectatorFrame("room1", 5, 1L, null));
+
+        verify(messagingTemplate).send(eq("/topic/game/room1/spectate"), any(Message.class));
+        verify(publisher).publishTo(eq("game-spectate:room1"), remote.capture());
+        verify(publisher, never()).publish(anyString(), any());
+        BroadcastEnvelope envelope = BroadcastEnvelope.decode(remote.getValue());
+        assertEquals("/topic/game/room1/spectate", envelope.getDestination());
+        assertTrue(new String(envelope.getPayload(), StandardCharsets.UTF_8).contains("\"type\":\"SPECTATE\""));
+        assertEquals(1, meterRegistry.get("serpentia.room.sent").tag("room", "room1").summary().count());
+    }
+
+    @Test
+    void testSubscriber_forwardsEnvelopeFromOtherNodeVerbatim() {
+        byte[] payload = "{\"type\":\"TICK\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] body = new BroadcastEnvelope("node-b", "/topic/game/room1", payload).encode();
+        ArgumentCaptor<Message<?>> local = ArgumentCaptor.forClass(Message.class);
+
+        subscriber.onMessage(new DefaultMessage("game-events".getBytes(), body), null);
+
+        verify(messagingTemplate).send(eq("/topic/game/room1"), local.capture());
+        assertArrayEquals(payload, (byte[]) local.getValue().getPayload());
+        assertEquals(1, meterRegistry.get("serpentia.relay.lag").timer().count());
+        assertEquals(payload.length, meterRegistry.get("serpentia.room.sent").tag("room", "room1").summary().totalAmount());
+    }
+
+    @Test
+    void testSubscriber_rejectsForeignDestination() {
+        byte[] body = new BroadcastEnvelope("node-b", "/topic/lobby", new byte[]{'{', '}'}).encode();
+
+        subscriber.onMessage(new DefaultMessage("game-events".getBytes(), body), null);
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testSubscriber_dropsMessagesThatAreNotEnvelopes() {
+        byte[] body = "{\"eventType\":\"GameEvent\",\"payload\":{}}".getBytes(StandardCharsets.UTF_8);
+
+        subscriber.onMessage(new DefaultMessage("game-events".getBytes(), body), null);
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testSubscriber_skipsOwnEvents() {
+        byte[] body = new BroadcastEnvelope("node-a", "/topic/game/room1", new byte[]{'{', '}'}).encode();
+
+        subscriber.onMessage(new DefaultMessage("game-events".getBytes(), body), null);
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testDecode_keepsSendTime() {
+        byte[] body = new BroadcastEnvelope("node-b", 1234L, "/topic/game/room1", new byte[]{'{', '}'}).encode();
+
+        BroadcastEnvelope envelope = BroadcastEnvelope.decode(body);
+
+        assertEquals(1234L, envelope.getSentAt());
+        assertEquals("node-b", envelope.getOrigin());
+        assertEquals("/topic/game/room1", envelope.getDestination());
+    }
+
+    @Test
+    void testDecode_nonEnvelopeReturnsNull() {
+        assertNull(BroadcastEnvelope.decode("{\"eventType\":\"GameEvent\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(BroadcastEnvelope.decode(new byte[]{'S', 'G', 2, 1, 'n', 0, 2, '/', 't', '{', '}'}));
+        byte[] truncated = new BroadcastEnvelope("node-b", "/topic/game/room1", new byte[0]).encode();
+        assertNull(BroadcastEnvelope.decode(Arrays.copyOf(truncated, truncated.length - 3)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.serpentia.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameChannelRegistryTest {
+
+    private RedisMessageListenerContainer container;
+    private GameEventSubscriber subscriber;
+    private GameChannelRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        container = mock(RedisMessageListenerContainer.class);
+        subscriber = mock(GameEventSubscriber.class);
+        registry = new GameChannelRegistry(container, subscriber);
+    }
+
+    private Message<byte[]> stomp(StompCommand command, String session, String subscription, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(session);
+        accessor.setSubscriptionId(subscription);
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void testSubscribe_firstWatcherSubscribesRoomChannelOnce() {
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/game/room1")));
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s2", "sub-0", "/topic/game/room1")));
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s1", "sub-1", "/topic/lobby")));
+
+        verify(container, times(1)).addMessageListener(subscriber, new ChannelTopic("game-events:room1"));
+        assertEquals(Set.of("room1"), registry.watchedRooms());
+    }
+
+    @Test
+    void testUnsubscribeAndDisconnect_lastWatcherRemovesChannel() {
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/game/room1")));
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s2", "sub-0", "/topic/game/room1")));
+
+        registry.onUnsubscribe(new SessionUnsubscribeEvent(this, stomp(StompCommand.UNSUBSCRIBE, "s1", "sub-0", null)));
+        verify(container, never()).removeMessageListener(any(), any(ChannelTopic.class));
+
+        registry.onDisconnect(new SessionDisconnectEvent(this, stomp(StompCommand.DISCONNECT, "s2", null, null),
+                "s2", CloseStatus.NORMAL));
+
+        verify(container).removeMessageListener(subscriber, new ChannelTopic("game-events:room1"));
+        assertTrue(registry.watchedRooms().isEmpty());
+    }
+
+    @Test
+    void testSubscribe_spectatorsUseTheirOwnChannel() {
+        registry.onSubscribe(new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/game/room1/spectate")));
+
+        verify(container).addMessageListener(subscriber, new ChannelTopic("game-spectate:room1"));
+        verify(container, never()).addMessageListener(subscriber, new ChannelTopic("game-events:room1"));
+        assertEquals(Set.of("room1"), registry.watchedRooms());
+
+        registry.onUnsubscribe(new SessionUnsubscribeEvent(this, stomp(StompCommand.UNSUBSCRIBE, "s1", "sub-0", null)));
+        verify(container).removeMessageListener(subscriber, new ChannelTopic("game-spectate:room1"));
+    }
+
+    @Test
+    void testUnsubscribe_unknownSubscriptionIsIgnored() {
+        registry.onUnsubscribe(new SessionUnsubscribeEvent(this, stomp(StompCommand.UNSUBSCRIBE, "s1", "sub-9", null)));
+        registry.onDisconnect(new SessionDisconnectEvent(this, stomp(StompCommand.DISCONNECT, "s1", null, null),
+                "s1", CloseStatus.NORMAL));
+
+        verifyNoInteractions(container);
+    }
+
+    @Test
+    void testRoomIdOf_parsesGameDestinations() {
+        assertEquals("room1", GameChannelRegistry.roomIdOf("/topic/game/room1"));
+        assertEquals("room1", GameChannelRegistry.roomIdOf("/topic/game/room1/spectate"));
+        assertNull(GameChannelRegistry.roomIdOf("/topic/game/"));
+        assertNull(GameChannelRegistry.roomIdOf("/topic/lobby"));
+        assertNull(GameChannelRegistry.roomIdOf(null));
+    }
+}
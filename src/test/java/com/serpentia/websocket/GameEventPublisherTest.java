@@ -0,0 +1,76 @@
+package com.serpentia.websocket;
+
+import com.serpentia.service.RoomMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GameEventPublisherTest {
+
+    private StringRedisTemplate redisTemplate;
+    private RedisConnection connection;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> submitted = new ArrayList<>();
+    private GameEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        connection = mock(RedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenAnswer(inv -> {
+                    inv.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                    return List.of();
+                });
+        meterRegistry = new SimpleMeterRegistry();
+        BroadcastMetrics metrics = new BroadcastMetrics(meterRegistry, new RoomMetrics(meterRegistry, true, 60000));
+        publisher = new GameEventPublisher(redisTemplate, metrics, submitted::add);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void eventsQueuedWhileSendingGoInOnePipeline() {
+        publisher.publish("room1", bytes("a"));
+        publisher.publish("room2", bytes("b"));
+        publisher.publishTo(GameEventPublisher.spectatorChannel("room1"), bytes("c"));
+
+        // Quien publica no toca Redis; un solo envío lleva los tres eventos en orden
+        verifyNoInteractions(redisTemplate);
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        var order = inOrder(connection);
+        order.verify(connection).publish(bytes("game-events:room1"), bytes("a"));
+        order.verify(connection).publish(bytes("game-events:room2"), bytes("b"));
+        order.verify(connection).publish(bytes("game-spectate:room1"), bytes("c"));
+        assertEquals(3, meterRegistry.get("serpentia.relay.publish").timer().count());
+
+        publisher.publish("room1", bytes("d"));
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    void shutdownSendsWhatIsLeft() {
+        publisher.publish("room1", bytes("a"));
+
+        publisher.shutdown();
+
+        verify(connection).publish(bytes("game-events:room1"), bytes("a"));
+    }
+}
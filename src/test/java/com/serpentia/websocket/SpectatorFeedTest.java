@@ -0,0 +1,134 @@
+package com.serpentia.websocket;
+
+import com.serpentia.enums.GameMode;
+import com.serpentia.model.BoardState;
+import com.serpentia.model.Point;
+import com.serpentia.service.LoadShedder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SpectatorFeedTest {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private GameBroadcaster broadcaster;
+    private ScheduledExecutorService executor;
+    private SimpleMeterRegistry registry;
+    private LoadShedder shedder;
+    private BoardState board;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = mock(GameBroadcaster.class);
+        executor = mock(ScheduledExecutorService.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any());
+        registry = new SimpleMeterRegistry();
+        shedder = new LoadShedder(registry, true, 0.6, 0.8, 1.0, 3000);
+        board = new BoardState();
+        board.setRoomId("room1");
+        board.setStatus("IN_GAME");
+        board.setGameMode(GameMode.COMPETITIVE);
+        board.addPlayer("player1", "#FF0000", new Point(0, 0));
+    }
+
+    private SpectatorFeed feed(long delayMillis, int maxPending) {
+        return new SpectatorFeed(broadcaster, shedder, registry, executor, true, 1000, delayMillis, maxPending);
+    }
+
+    @Test
+    void sendsOneSnapshotPerIntervalAndTheLastOne() {
+        SpectatorFeed feed = feed(0, 100);
+        assertEquals(5, feed.stride(PERIOD));
+
+        for (long tick = 1; tick <= 10; tick++) {
+            board.setTick(tick);
+            feed.offer(board, PERIOD, false);
+        }
+        board.setTick(11);
+        feed.offer(board, PERIOD, true);
+
+        ArgumentCaptor<SpectatorFrame> frames = ArgumentCaptor.forClass(SpectatorFrame.class);
+        verify(broadcaster, times(3)).broadcastToSpectators(eq("room1"), frames.capture());
+        assertEquals(5, frames.getAllValues().get(0).getTick());
+        assertEquals(10, frames.getAllValues().get(1).getTick());
+        assertEquals(11, frames.getAllValues().get(2).getTick());
+        assertEquals("SPECTATE", frames.getValue().getType());
+        assertEquals(1, frames.getValue().getState().getPlayers().size());
+    }
+
+    @Test
+    void delayedSendKeepsTheSnapshotOfItsTick() {
+        SpectatorFeed feed = feed(3000, 100);
+        board.setTick(5);
+
+        feed.offer(board, PERIOD, false);
+        board.setTick(6);
+
+        ArgumentCaptor<Runnable> send = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(send.capture(), eq(3000L), eq(TimeUnit.MILLISECONDS));
+        verifyNoInteractions(broadcaster);
+
+        send.getValue().run();
+        ArgumentCaptor<SpectatorFrame> frame = ArgumentCaptor.forClass(SpectatorFrame.class);
+        verify(broadcaster).broadcastToSpectators(eq("room1"), frame.capture());
+        assertEquals(5, frame.getValue().getTick());
+    }
+
+    @Test
+    void snapshotIsCopiedDuringTheTickNotByTheSenderThread() {
+        SpectatorFeed feed = feed(0, 100);
+        doNothing().when(executor).execute(any());
+        board.setTick(5);
+
+        feed.offer(board, PERIOD, false);
+        board.setTick(6);
+        assertTrue(board.spawnFruit());
+        board.pushHead("player1", new Point(1, 0));
+        board.addScoreToPlayer("player1", 10);
+
+        ArgumentCaptor<Runnable> send = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(send.capture());
+        send.getValue().run();
+        ArgumentCaptor<SpectatorFrame> frame = ArgumentCaptor.forClass(SpectatorFrame.class);
+        verify(broadcaster).broadcastToSpectators(eq("room1"), frame.capture());
+        assertEquals(5, frame.getValue().getTick());
+        assertTrue(frame.getValue().getState().getFruits().isEmpty());
+        assertEquals(List.of(new Point(0, 0)), frame.getValue().getState().getPlayers().get(0).getSnake());
+        assertEquals(0, frame.getValue().getState().getPlayers().get(0).getScore());
+    }
+
+    @Test
+    void backlogBeyondMaxPendingIsDropped() {
+        SpectatorFeed feed = feed(3000, 1);
+        board.setTick(5);
+        feed.offer(board, PERIOD, false);
+        board.setTick(10);
+        feed.offer(board, PERIOD, false);
+
+        verify(executor, times(1)).schedule(any(Runnable.class), anyLong(), any());
+        assertEquals(1.0, registry.get("serpentia.spectator.overflow").counter().count());
+    }
+
+    @Test
+    void disabledFeedDoesNothing() {
+        SpectatorFeed feed = new SpectatorFeed(broadcaster, shedder, registry, executor, false, 1000, 0, 100);
+        board.setTick(5);
+
+        feed.offer(board, PERIOD, true);
+
+        verifyNoInteractions(executor, broadcaster);
+    }
+}